@@ -0,0 +1,227 @@
+package lld03_observer_pattern.order_status_notification_system;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ Async dispatch mode for any OrderObserver.
+
+ It is itself an OrderObserver (so Order does not change at all): it only
+ enqueues the event and returns, while a dedicated virtual thread drains the
+ bounded queue and calls the wrapped observer. A slow EmailService now only
+ slows down its own queue, never markPaid()/markShipped().
+
+ The queue holds retained OrderEvent snapshots, so the wrapped observer sees the
+ transition as it happened even if the order has moved on by the time it runs.
+ A bulk transition is queued as one entry and reaches the wrapped observer as
+ one onOrderEvents call, the same as without the queue.
+
+ An event either reaches the wrapped observer, or its publisher gets an exception
+ (closed, or interrupted under BLOCK), or it is counted in droppedCount() (DROP_OLDEST,
+ REJECT); close() never loses one silently. A full queue never throws at the subject:
+ by then the transition has happened, and the observers after this one still get it.
+ Whatever the wrapped observer throws, Errors included, is logged and the worker
+ carries on, so a publisher blocked on a full queue is never left without a consumer.
+ The worker is never interrupted, so a wrapped observer doing I/O is not cut off
+ mid-delivery: close() wakes it with a STOP entry and it stops once closed and idle.
+ */
+class AsyncOrderObserver implements OrderObserver, AutoCloseable {
+
+    private static final Object STOP = new Object(); // close()'s wake-up call, never delivered
+    private static final long IDLE_CHECK_MILLIS = 100; // how often an idle worker looks at closed
+
+    private final OrderObserver delegate;
+    private final BlockingQueue<Object> queue; // OrderEvent or Batch
+    private final BackpressurePolicy policy;
+    private final Thread worker;
+    private final LongAdder dropped = new LongAdder();
+
+    private volatile boolean closed;
+
+    public AsyncOrderObserver(OrderObserver delegate, int capacity, BackpressurePolicy policy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.delegate = delegate;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.policy = policy;
+        this.worker = Thread.ofVirtual()
+                .name("order-observer-" + delegate.getClass().getSimpleName())
+                .start(this::drain);
+    }
+
+    @Override
+    public void onOrderEvent(OrderEvent event) {
+        checkOpen();
+        event.retain(); // the snapshot outlives this call, released by the worker
+        accept(event);
+    }
+
+    /** Direct calls that did not come with a snapshot get an unpooled one of the state the event announces. */
+    @Override
+    public void onOrderEvent(OrderEventType event, Order order) {
+        checkOpen();
+        accept(OrderEvent.detached(event, order, null, OrderState.announcedBy(event), System.currentTimeMillis()));
+    }
+
+    /** The whole batch takes one queue slot and is delivered in one call. */
+    @Override
+    public void onOrderEvents(List<OrderEvent> events) {
+        checkOpen();
+        for (OrderEvent event : events) {
+            event.retain();
+        }
+        accept(new Batch(events));
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("observer already closed");
+        }
+    }
+
+    /**
+     Takes over one reference of every event in the entry. A publisher that passed
+     checkOpen() just before close() may enqueue after the worker's final flush;
+     it sees closed afterwards and takes its entry back, unless the worker got it first.
+     */
+    private void accept(Object entry) {
+        enqueue(entry);
+        if (closed && queue.remove(entry)) {
+            release(entry);
+            throw new IllegalStateException("observer already closed");
+        }
+    }
+
+    private void enqueue(Object event) {
+        switch (policy) {
+            case BLOCK -> {
+                try {
+                    queue.put(event);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    release(event); // not dropped: the publisher is told, like close() does
+                    throw new IllegalStateException("interrupted while waiting for queue space", e);
+                }
+            }
+            case DROP_OLDEST -> {
+                while (!queue.offer(event)) {
+                    Object oldest = queue.poll();
+                    if (oldest != null) {
+                        discard(oldest);
+                    }
+                }
+            }
+            case REJECT -> {
+                if (!queue.offer(event)) {
+                    discard(event); // counted, not thrown: the subject's transition already happened
+                }
+            }
+        }
+    }
+
+    private void discard(Object entry) {
+        if (entry == STOP) {
+            return; // evicted by DROP_OLDEST; the worker still stops on closed
+        }
+        dropped.add(entry instanceof Batch batch ? batch.events.size() : 1);
+        release(entry);
+    }
+
+    private static void release(Object entry) {
+        if (entry instanceof Batch batch) {
+            for (OrderEvent event : batch.events) {
+                event.release();
+            }
+        } else {
+            ((OrderEvent) entry).release();
+        }
+    }
+
+    @Override
+    public Set<OrderEventType> interestedIn() {
+        return delegate.interestedIn();
+    }
+
+    /** Events lost to backpressure (dropped or rejected) so far; a batch counts every event in it. */
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    public int pendingCount() {
+        return queue.size();
+    }
+
+    private void drain() {
+        while (true) {
+            Object entry;
+            try {
+                entry = queue.poll(IDLE_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                continue; // nobody interrupts the worker; close() uses STOP
+            }
+            if (entry == null || entry == STOP) {
+                if (closed) {
+                    break;
+                }
+            } else {
+                deliver(entry);
+            }
+        }
+        // closing: flush whatever was accepted before close()
+        Object entry;
+        while ((entry = queue.poll()) != null) {
+            if (entry != STOP) {
+                deliver(entry);
+            }
+        }
+    }
+
+    private void deliver(Object entry) {
+        try {
+            if (entry instanceof Batch batch) {
+                delegate.onOrderEvents(batch.events);
+            } else {
+                delegate.onOrderEvent((OrderEvent) entry);
+            }
+        } catch (Throwable e) {
+            // one failing event must not kill the worker: nothing else would drain the queue
+            System.err.println("Observer " + delegate.getClass().getSimpleName() + " failed: " + e);
+        } finally {
+            release(entry);
+        }
+    }
+
+    /**
+     Stops accepting events, delivers the ones already queued and waits for the worker.
+     The worker is woken by a STOP entry, never interrupted; if the queue is full it
+     is busy anyway and sees closed once it runs dry. Does not throw InterruptedException (try-with-resources could not handle it sensibly):
+     an interrupted wait restores the flag and throws IllegalStateException, while the
+     worker still delivers what is queued on its own.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        queue.offer(STOP);
+        try {
+            worker.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for queued events to be delivered", e);
+        }
+    }
+
+    /** Queue entry of one bulk transition; the list is immutable, so it is queued as is. */
+    private static final class Batch {
+
+        final List<OrderEvent> events;
+
+        Batch(List<OrderEvent> events) {
+            this.events = events;
+        }
+    }
+}
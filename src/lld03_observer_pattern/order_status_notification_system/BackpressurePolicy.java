@@ -0,0 +1,15 @@
+package lld03_observer_pattern.order_status_notification_system;
+
+/**
+ What happens when an observer's own queue is full.
+   - BLOCK       → the publishing thread waits for space (no event lost; an
+                   interrupted wait throws IllegalStateException instead)
+   - DROP_OLDEST → the oldest queued event is discarded to make room
+   - REJECT      → the new event is refused and counted (AsyncOrderObserver.droppedCount());
+                   the publisher is not told, its transition has already happened
+ */
+enum BackpressurePolicy {
+    BLOCK,
+    DROP_OLDEST,
+    REJECT
+}
@@ -0,0 +1,23 @@
+package lld03_observer_pattern.order_status_notification_system;
+
+import java.util.List;
+
+/**
+ Opt-in for observers that can amortize work (I/O, flushes) over a whole batch:
+ one callback per bulk transition instead of one per order.
+ */
+interface BatchOrderObserver extends OrderObserver {
+    @Override
+    void onOrderEvents(OrderEventType event, List<Order> orders);
+
+    @Override
+    default void onOrderEvent(OrderEventType event, Order order) {
+        onOrderEvents(event, List.of(order));
+    }
+
+    /** Asked for the orders of a batch in one call, so it gets them: the live orders behind the snapshots. */
+    @Override
+    default void onOrderEvents(List<OrderEvent> events) {
+        onOrderEvents(events.get(0).type(), OrderEvent.orders(events));
+    }
+}
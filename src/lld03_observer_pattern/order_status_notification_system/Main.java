@@ -1,7 +1,8 @@
 package lld03_observer_pattern.order_status_notification_system;
 
-import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 /**
 # DESIGN PROBLEM: Observer Pattern (Behavioral)
@@ -75,85 +76,13 @@ Your Tasks:
   high level class(not effected by business changes): class from where 
  */
 
-enum OrderEventType {
-    ORDER_CREATED,
-    ORDER_PAID,
-    ORDER_SHIPPED,
-    ORDER_DELIVERED,
-    ORDER_CANCELLED
-}
-
-interface OrderObserver {
-    void onOrderEvent(OrderEventType event, Order order);
-}
-
-interface OrderSubject {
-    void addObserver(OrderObserver observer);
-    void removeObserver(OrderObserver observer);
-}
-
-
-class Order implements OrderSubject {
-
-    private int id;
-    private String name;
-    private String userEmail;
-    private String status;
-
-    private final List<OrderObserver> observers = new ArrayList<>();
-
-    public Order(int id, String name, String userEmail) {
-        this.id = id;
-        this.name = name;
-        this.userEmail = userEmail;
-        this.status = "CREATED";
-        notifyObservers(OrderEventType.ORDER_CREATED);
-    }
+class EmailService implements OrderObserver {
 
-    // --- observable behavior ---
     @Override
-    public void addObserver(OrderObserver observer) {
-        observers.add(observer);
+    public Set<OrderEventType> interestedIn() {
+        return EnumSet.of(OrderEventType.ORDER_PAID);
     }
 
-    @Override
-    public void removeObserver(OrderObserver observer) {
-        observers.remove(observer);
-    }
-
-    private void notifyObservers(OrderEventType event) {
-        for (OrderObserver observer : observers) {
-            observer.onOrderEvent(event, this);
-        }
-    }
-
-    // --- domain behavior ---
-    public void markPaid() {
-        this.status = "PAID";
-        notifyObservers(OrderEventType.ORDER_PAID);
-    }
-
-    public void markShipped() {
-        this.status = "SHIPPED";
-        notifyObservers(OrderEventType.ORDER_SHIPPED);
-    }
-
-    // --- getters (pull happens here) ---
-    public int getId() {
-        return id;
-    }
-
-    public String getUserEmail() {
-        return userEmail;
-    }
-
-    public String getStatus() {
-        return status;
-    }
-}
-
-class EmailService implements OrderObserver {
-
     @Override
     public void onOrderEvent(OrderEventType event, Order order) {
         if (event == OrderEventType.ORDER_PAID) {
@@ -163,37 +92,84 @@ class EmailService implements OrderObserver {
     }
 }
 
-class InvoiceService implements OrderObserver {
+class InvoiceService implements BatchOrderObserver {
 
     @Override
-    public void onOrderEvent(OrderEventType event, Order order) {
+    public Set<OrderEventType> interestedIn() {
+        return EnumSet.of(OrderEventType.ORDER_PAID);
+    }
+
+    @Override
+    public void onOrderEvents(OrderEventType event, List<Order> orders) {
         if (event == OrderEventType.ORDER_PAID) {
-            System.out.println("Invoice generated for order " + order.getId());
+            StringBuilder ids = new StringBuilder();
+            for (Order order : orders) {
+                ids.append(ids.length() == 0 ? "" : ", ").append(order.getId());
+            }
+            System.out.println("Invoice generated for order " + ids);
         }
     }
 }
 
+class AnalyticsService implements BatchOrderObserver {
 
-class AnalyticsService implements OrderObserver {
+    /** Single transitions: log the snapshot, which still says where the order came from. */
+    @Override
+    public void onOrderEvent(OrderEvent event) {
+        System.out.println("Analytics: Order " + event.orderId() + " changed state "
+                + (event.from() == null ? "" : "from " + event.from() + " ") + "to " + event.to());
+    }
 
     @Override
-    public void onOrderEvent(OrderEventType event, Order order) {
-        System.out.println("Analytics: Order " + order.getId()
-                + " changed state to " + order.getStatus());
+    public void onOrderEvents(List<OrderEvent> events) {
+        if (events.size() == 1) {
+            onOrderEvent(events.get(0));
+        } else {
+            System.out.println("Analytics: " + events.size() + " orders had " + events.get(0).type());
+        }
     }
-}
 
+    @Override
+    public void onOrderEvents(OrderEventType event, List<Order> orders) {
+        if (orders.size() == 1) {
+            System.out.println("Analytics: Order " + orders.get(0).getId()
+                    + " changed state to " + orders.get(0).getState());
+        } else {
+            System.out.println("Analytics: " + orders.size() + " orders had " + event);
+        }
+    }
+}
 
 public class Main {
     public static void main(String[] args) {
 
         Order order = new Order(1, "iPhone", "user@email.com");
 
-        order.addObserver(new EmailService());
+        // slow, I/O bound observer: dispatched on its own queue so markPaid() never waits for it
+        AsyncOrderObserver asyncEmail =
+                new AsyncOrderObserver(new EmailService(), 1024, BackpressurePolicy.BLOCK);
+
+        order.addObserver(asyncEmail);
         order.addObserver(new InvoiceService());
         order.addObserver(new AnalyticsService());
 
         order.markPaid();
         order.markShipped();
+        order.markDelivered();
+        order.markCancelled(); // rejected: DELIVERED is terminal, no event fires
+
+        asyncEmail.close();
+
+        // settlement file: many orders become PAID at once, batch observers get one callback
+        OrderDispatchMetrics metrics = new OrderDispatchMetrics(50_000_000); // flag observers with p99 > 50ms
+        OrderRepository repository = new OrderRepository();
+        repository.addObserver(metrics.instrument(new InvoiceService()));
+        repository.addObserver(metrics.instrument(new AnalyticsService()));
+        for (int id = 100; id < 105; id++) {
+            repository.create(id, "AirPods", "buyer" + id + "@email.com");
+        }
+        repository.markAllPaid(new int[] {100, 101, 102, 103, 104});
+
+        System.out.print(metrics.report());
     }
 }
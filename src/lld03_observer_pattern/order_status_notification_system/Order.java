@@ -0,0 +1,147 @@
+package lld03_observer_pattern.order_status_notification_system;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+
+class Order implements OrderSubject {
+
+    private int id;
+    private String name;
+    private String userEmail;
+
+    /** OrderState code, only ever changed by CAS in casTo(). */
+    private volatile byte state;
+
+    private final OrderObserverRegistry observers;
+
+    public Order(int id, String name, String userEmail) {
+        this(id, name, userEmail, new OrderObserverRegistry());
+        notifyObservers(OrderEventType.ORDER_CREATED);
+    }
+
+    /**
+     Orders owned by an OrderRepository share the repository's observers instead of
+     carrying their own; the repository fires ORDER_CREATED once the order is stored.
+     */
+    Order(int id, String name, String userEmail, OrderObserverRegistry observers) {
+        this.id = id;
+        this.name = name;
+        this.userEmail = userEmail;
+        this.state = OrderState.CREATED.code();
+        this.observers = observers;
+    }
+
+    // --- observable behavior ---
+    @Override
+    public void addObserver(OrderObserver observer) {
+        observers.subscribe(observer);
+    }
+
+    @Override
+    public void removeObserver(OrderObserver observer) {
+        observers.unsubscribe(observer);
+    }
+
+    @Override
+    public OrderSubscription subscribe(OrderObserver observer) {
+        return observers.subscribe(observer);
+    }
+
+    @Override
+    public OrderSubscription subscribeWeak(OrderObserver observer) {
+        return observers.subscribeWeak(observer);
+    }
+
+    @Override
+    public OrderSubscription subscribe(OrderObserver observer, Duration ttl) {
+        return observers.subscribe(observer, ttl);
+    }
+
+    /**
+     Announces an event that is not a transition of this call (ORDER_CREATED, or a
+     re-announcement): the snapshot says the state the event stands for, not
+     whatever the live order has moved on to, and has no from-state.
+     */
+    void notifyObservers(OrderEventType event) {
+        observers.dispatch(event, this, null, OrderState.announcedBy(event));
+    }
+
+    // --- domain behavior ---
+    // Each mark* returns true only for the caller whose CAS performed the transition;
+    // that caller, and only that caller, fires the event.
+    public boolean markPaid() {
+        return transitionTo(OrderState.PAID);
+    }
+
+    public boolean markShipped() {
+        return transitionTo(OrderState.SHIPPED);
+    }
+
+    public boolean markDelivered() {
+        return transitionTo(OrderState.DELIVERED);
+    }
+
+    public boolean markCancelled() {
+        return transitionTo(OrderState.CANCELLED);
+    }
+
+    private boolean transitionTo(OrderState target) {
+        OrderState from = casTo(target);
+        if (from == null) {
+            return false;
+        }
+        observers.dispatch(target.event(), this, from, target);
+        return true;
+    }
+
+    /** Moves without notifying (bulk transitions); returns the state it moved from, or null. */
+    OrderState tryTransition(OrderState target) {
+        return casTo(target);
+    }
+
+    /**
+     Lock-free: retries only while the current state still allows the target.
+     Returns the state this call moved the order away from, or null if it did not move it.
+     */
+    private OrderState casTo(OrderState target) {
+        while (true) {
+            byte current = state;
+            OrderState from = OrderState.of(current);
+            if (!from.canMoveTo(target)) {
+                return null;
+            }
+            if (STATE.compareAndSet(this, current, target.code())) {
+                return from;
+            }
+        }
+    }
+
+    // --- getters (pull happens here) ---
+    public int getId() {
+        return id;
+    }
+
+    public String getUserEmail() {
+        return userEmail;
+    }
+
+    public OrderState getState() {
+        return OrderState.of(state);
+    }
+
+    /** The baseline's pull API: the state's name, e.g. "PAID". */
+    public String getStatus() {
+        return getState().name();
+    }
+
+    private static final VarHandle STATE;
+
+    static {
+        try {
+            STATE = MethodHandles.lookup().findVarHandle(Order.class, "state", byte.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
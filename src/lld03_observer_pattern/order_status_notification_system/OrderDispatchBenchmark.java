@@ -0,0 +1,87 @@
+package lld03_observer_pattern.order_status_notification_system;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ Broadcast (every observer called, each filters internally) vs the
+ event-type index in OrderObserverRegistry.
+
+ 50 observers, each interested in one or two of the five event types,
+ events fired round-robin over all five types.
+
+ Run: java lld03_observer_pattern.order_status_notification_system.OrderDispatchBenchmark
+ */
+public class OrderDispatchBenchmark {
+
+    private static final int OBSERVERS = 50;
+    private static final int EVENTS = 20_000_000;
+    private static final int ROUNDS = 5;
+
+    static final class CountingObserver implements OrderObserver {
+        private final Set<OrderEventType> interests;
+        long handled;
+
+        CountingObserver(Set<OrderEventType> interests) {
+            this.interests = interests;
+        }
+
+        @Override
+        public Set<OrderEventType> interestedIn() {
+            return interests;
+        }
+
+        @Override
+        public void onOrderEvent(OrderEventType event, Order order) {
+            // same shape as EmailService / InvoiceService: filter inside the observer
+            if (interests.contains(event)) {
+                handled++;
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        OrderEventType[] types = OrderEventType.values();
+        List<CountingObserver> observers = new ArrayList<>();
+        for (int i = 0; i < OBSERVERS; i++) {
+            Set<OrderEventType> interests = (i % 3 == 0)
+                    ? EnumSet.of(types[i % types.length], types[(i + 1) % types.length])
+                    : EnumSet.of(types[i % types.length]);
+            observers.add(new CountingObserver(interests));
+        }
+
+        Order order = new Order(1, "iPhone", "user@email.com");
+        List<OrderObserver> broadcast = new ArrayList<>(observers);
+        for (OrderObserver observer : observers) {
+            order.addObserver(observer);
+        }
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < EVENTS; i++) {
+                OrderEventType event = types[i % types.length];
+                for (OrderObserver observer : broadcast) {
+                    observer.onOrderEvent(event, order);
+                }
+            }
+            long broadcastNanos = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < EVENTS; i++) {
+                order.notifyObservers(types[i % types.length]);
+            }
+            long indexedNanos = System.nanoTime() - start;
+
+            System.out.printf("round %d: broadcast %.1f ns/event, indexed %.1f ns/event%n",
+                    round, (double) broadcastNanos / EVENTS, (double) indexedNanos / EVENTS);
+        }
+
+        long handled = 0;
+        for (CountingObserver observer : observers) {
+            handled += observer.handled;
+        }
+        System.out.println("handled: " + handled);
+    }
+}
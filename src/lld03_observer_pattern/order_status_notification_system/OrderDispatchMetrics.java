@@ -0,0 +1,243 @@
+package lld03_observer_pattern.order_status_notification_system;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ Per-observer dispatch metrics for the order subject.
+
+ instrument(observer) returns a wrapping OrderObserver (subscribe that one instead),
+ which records for every OrderEventType:
+   - invocation count and error count
+   - a latency histogram with HDR-style log-linear buckets (8 sub-buckets per power of two),
+     in time per order: a batch callback is recorded as its time divided by its
+     size, once per order, so bulk transitions do not read as slow single events
+
+ The hot path only touches preallocated counters, so it allocates nothing.
+ Invocations are counted in LongAdders (per-thread cells, no shared CAS line).
+ Every Throwable from the observer counts as an error (and is rethrown as is).
+ Timing costs two nanoTime() calls, so it is sampled: each invocation is timed
+ with probability 1/sampleEvery, decided by the calling thread's
+ ThreadLocalRandom; counts are always exact. Batches are always timed, and so
+ are the first MIN_SAMPLES invocations of every event type, so an observer
+ that is called only a few times still gets real percentiles. An event type
+ without a single timed call reports n/a.
+
+ slowObservers() is the slow-observer detector: it flags every observer whose
+ p99 latency is above the configured threshold.
+ */
+class OrderDispatchMetrics {
+
+    private static final OrderEventType[] EVENTS = OrderEventType.values();
+    private static final int DEFAULT_SAMPLE_EVERY = 16;
+    private static final int MIN_SAMPLES = 1024;
+
+    private final long slowP99Nanos;
+    private final int sampleMask;
+    private final List<InstrumentedObserver> observers = new CopyOnWriteArrayList<>();
+
+    /** Times one in 16 invocations, which keeps the overhead around 10-15ns per dispatch. */
+    OrderDispatchMetrics(long slowP99Nanos) {
+        this(slowP99Nanos, DEFAULT_SAMPLE_EVERY);
+    }
+
+    /** sampleEvery must be a power of two; 1 times every invocation. */
+    OrderDispatchMetrics(long slowP99Nanos, int sampleEvery) {
+        if (sampleEvery <= 0 || Integer.bitCount(sampleEvery) != 1) {
+            throw new IllegalArgumentException("sampleEvery must be a power of two: " + sampleEvery);
+        }
+        this.slowP99Nanos = slowP99Nanos;
+        this.sampleMask = sampleEvery - 1;
+    }
+
+    OrderObserver instrument(OrderObserver observer) {
+        InstrumentedObserver instrumented = new InstrumentedObserver(observer, sampleMask);
+        observers.add(instrumented);
+        return instrumented;
+    }
+
+    /** Observers whose p99 over all event types exceeds the configured threshold. */
+    List<OrderObserver> slowObservers() {
+        List<OrderObserver> slow = new ArrayList<>();
+        for (InstrumentedObserver observer : observers) {
+            if (observer.merged().percentile(0.99) > slowP99Nanos) {
+                slow.add(observer.delegate);
+            }
+        }
+        return slow;
+    }
+
+    long invocations(OrderObserver observer, OrderEventType event) {
+        return find(observer).invocations[event.ordinal()].sum();
+    }
+
+    long errors(OrderObserver observer, OrderEventType event) {
+        return find(observer).errors.get(event.ordinal());
+    }
+
+    long percentile(OrderObserver observer, OrderEventType event, double quantile) {
+        return find(observer).latency[event.ordinal()].percentile(quantile);
+    }
+
+    /** One line per observer and event type that has been invoked. */
+    String report() {
+        StringBuilder report = new StringBuilder();
+        for (InstrumentedObserver observer : observers) {
+            String name = observer.delegate.getClass().getSimpleName();
+            for (OrderEventType event : EVENTS) {
+                long calls = observer.invocations[event.ordinal()].sum();
+                if (calls == 0) {
+                    continue;
+                }
+                LatencyHistogram latency = observer.latency[event.ordinal()];
+                boolean timed = latency.count() != 0;
+                report.append(String.format("%-20s %-16s calls=%d errors=%d p50=%s p99=%s max=%s%n",
+                        name, event, calls, observer.errors.get(event.ordinal()),
+                        nanos(latency, 0.50, timed), nanos(latency, 0.99, timed), nanos(latency, 1.0, timed)));
+            }
+        }
+        for (OrderObserver slow : slowObservers()) {
+            report.append("SLOW: ").append(slow.getClass().getSimpleName())
+                    .append(" p99 > ").append(slowP99Nanos).append("ns").append(System.lineSeparator());
+        }
+        return report.toString();
+    }
+
+    private static String nanos(LatencyHistogram latency, double quantile, boolean timed) {
+        return timed ? latency.percentile(quantile) + "ns" : "n/a";
+    }
+
+    private InstrumentedObserver find(OrderObserver observer) {
+        for (InstrumentedObserver instrumented : observers) {
+            if (instrumented == observer || instrumented.delegate == observer) {
+                return instrumented;
+            }
+        }
+        throw new IllegalArgumentException("observer is not instrumented: " + observer);
+    }
+
+    private static final class InstrumentedObserver implements OrderObserver {
+
+        private static final long NOT_SAMPLED = Long.MIN_VALUE;
+
+        final OrderObserver delegate;
+        final LongAdder[] invocations = new LongAdder[EVENTS.length];
+        final AtomicLongArray errors = new AtomicLongArray(EVENTS.length);
+        final LatencyHistogram[] latency = new LatencyHistogram[EVENTS.length];
+        private final AtomicIntegerArray unsampled = new AtomicIntegerArray(EVENTS.length); // timed calls left
+        private final int sampleMask;
+
+        InstrumentedObserver(OrderObserver delegate, int sampleMask) {
+            this.delegate = delegate;
+            this.sampleMask = sampleMask;
+            for (int i = 0; i < latency.length; i++) {
+                invocations[i] = new LongAdder();
+                latency[i] = new LatencyHistogram();
+                unsampled.set(i, MIN_SAMPLES);
+            }
+        }
+
+        @Override
+        public Set<OrderEventType> interestedIn() {
+            return delegate.interestedIn();
+        }
+
+        @Override
+        public void onOrderEvent(OrderEvent event) {
+            int e = event.type().ordinal();
+            long start = begin(e);
+            try {
+                delegate.onOrderEvent(event);
+            } catch (Throwable ex) {
+                errors.incrementAndGet(e);
+                throw ex;
+            } finally {
+                end(e, start);
+            }
+        }
+
+        @Override
+        public void onOrderEvent(OrderEventType event, Order order) {
+            int e = event.ordinal();
+            long start = begin(e);
+            try {
+                delegate.onOrderEvent(event, order);
+            } catch (Throwable ex) {
+                errors.incrementAndGet(e);
+                throw ex;
+            } finally {
+                end(e, start);
+            }
+        }
+
+        /**
+         Counts the invocation; returns its start time if it is timed, NOT_SAMPLED otherwise.
+         Once MIN_SAMPLES calls were timed, the unsampled check is a plain read of a line
+         nobody writes any more.
+         */
+        private long begin(int e) {
+            invocations[e].increment();
+            if (unsampled.get(e) > 0 && unsampled.getAndDecrement(e) > 0) {
+                return System.nanoTime();
+            }
+            return (ThreadLocalRandom.current().nextInt() & sampleMask) == 0 ? System.nanoTime() : NOT_SAMPLED;
+        }
+
+        private void end(int e, long start) {
+            if (start != NOT_SAMPLED) {
+                latency[e].record(System.nanoTime() - start);
+            }
+        }
+
+        // a batch is one invocation of the observer; its time is spread over its orders
+
+        @Override
+        public void onOrderEvents(OrderEventType event, List<Order> orders) {
+            int e = event.ordinal();
+            invocations[e].increment();
+            long start = System.nanoTime();
+            try {
+                delegate.onOrderEvents(event, orders);
+            } catch (Throwable ex) {
+                errors.incrementAndGet(e);
+                throw ex;
+            } finally {
+                endBatch(e, start, orders.size());
+            }
+        }
+
+        @Override
+        public void onOrderEvents(List<OrderEvent> events) {
+            int e = events.get(0).type().ordinal();
+            invocations[e].increment();
+            long start = System.nanoTime();
+            try {
+                delegate.onOrderEvents(events);
+            } catch (Throwable ex) {
+                errors.incrementAndGet(e);
+                throw ex;
+            } finally {
+                endBatch(e, start, events.size());
+            }
+        }
+
+        private void endBatch(int e, long start, int size) {
+            int orders = Math.max(1, size);
+            latency[e].record((System.nanoTime() - start) / orders, orders);
+        }
+
+        LatencyHistogram merged() {
+            LatencyHistogram merged = new LatencyHistogram();
+            for (LatencyHistogram histogram : latency) {
+                merged.add(histogram);
+            }
+            return merged;
+        }
+    }
+}
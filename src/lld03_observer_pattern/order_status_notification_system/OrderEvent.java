@@ -0,0 +1,191 @@
+package lld03_observer_pattern.order_status_notification_system;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ Immutable (to observers) snapshot of one order transition: id, from-state,
+ to-state and timestamp, captured at the moment the CAS succeeded. Unlike the
+ live Order, it cannot show a later state to an observer that reads it late.
+
+ Snapshots of single transitions are pooled and reference counted, so
+ delivering one allocates nothing in steady state:
+   - the dispatcher holds one reference for the duration of the dispatch
+   - an observer that keeps the snapshot after returning (e.g. hands it to another
+     thread) must retain() it and release() it when done
+   - when the last reference is released the snapshot goes back to its pool
+ Reading a snapshot after releasing it is a bug: it may already describe another transition.
+
+ Pools are per thread, so acquiring and recycling on the owning thread take no
+ lock and no CAS. A snapshot released on another thread (an async observer's
+ worker) is pushed onto its pool's `returned` stack, a lock-free Treiber stack
+ (one CAS per push); the owning thread takes the whole stack with one getAndSet
+ when its free list runs dry, keeps up to CAPACITY of them and leaves the rest
+ to the GC.
+ Snapshots of bulk transitions are not pooled: a batch list may be kept as is.
+ */
+class OrderEvent {
+
+    private final OrderEventPool pool;
+
+    private OrderEventType type;
+    private Order order;
+    private int orderId;
+    private OrderState from;
+    private OrderState to;
+    private long timestampMillis;
+    private volatile int refs;
+    private OrderEvent nextFree; // link in the pool's free lists
+
+    private OrderEvent(OrderEventPool pool) {
+        this.pool = pool;
+    }
+
+    /** A pooled snapshot holding one reference, owned by the caller. */
+    static OrderEvent pooled(OrderEventType type, Order order, OrderState from, OrderState to, long timestampMillis) {
+        return OrderEventPool.LOCAL.get().acquire(type, order, from, to, timestampMillis);
+    }
+
+    /** An unpooled snapshot, for bulk transitions and for callers that bypass the registry. */
+    static OrderEvent detached(OrderEventType type, Order order, OrderState from, OrderState to, long timestampMillis) {
+        OrderEvent event = new OrderEvent(null);
+        event.init(type, order, from, to, timestampMillis);
+        return event;
+    }
+
+    /** Read-only view of the live orders behind a batch of snapshots, for pull-model observers. */
+    static List<Order> orders(List<OrderEvent> events) {
+        return new AbstractList<>() {
+            @Override
+            public Order get(int index) {
+                return events.get(index).order();
+            }
+
+            @Override
+            public int size() {
+                return events.size();
+            }
+        };
+    }
+
+    public OrderEventType type() {
+        return type;
+    }
+
+    public int orderId() {
+        return orderId;
+    }
+
+    /** State before the transition; null for ORDER_CREATED and for re-announced events. */
+    public OrderState from() {
+        return from;
+    }
+
+    public OrderState to() {
+        return to;
+    }
+
+    public long timestampMillis() {
+        return timestampMillis;
+    }
+
+    /** The live order, for observers that still want to pull current data. */
+    public Order order() {
+        return order;
+    }
+
+    void retain() {
+        REFS.getAndAdd(this, 1);
+    }
+
+    void release() {
+        int left = (int) REFS.getAndAdd(this, -1) - 1;
+        if (left == 0 && pool != null) {
+            order = null;
+            pool.recycle(this);
+        } else if (left < 0) {
+            throw new IllegalStateException("order event released more often than retained");
+        }
+    }
+
+    private void init(OrderEventType type, Order order, OrderState from, OrderState to, long timestampMillis) {
+        this.type = type;
+        this.order = order;
+        this.orderId = order.getId();
+        this.from = from;
+        this.to = to;
+        this.timestampMillis = timestampMillis;
+        this.refs = 1; // volatile write publishes the fields above
+    }
+
+    private static final VarHandle REFS;
+
+    static {
+        try {
+            REFS = MethodHandles.lookup().findVarHandle(OrderEvent.class, "refs", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    /**
+     Free list of one thread's snapshots, linked through nextFree.
+       - the owner thread takes from and returns to its local list without any atomics
+       - other threads (async workers releasing the last reference) push onto a
+         lock-free return stack; the owner takes that whole stack in one getAndSet
+         when its local list runs dry
+     At most CAPACITY snapshots are kept; beyond that, releases are left to the GC.
+     */
+    static final class OrderEventPool {
+
+        private static final int CAPACITY = 1024;
+        private static final ThreadLocal<OrderEventPool> LOCAL = ThreadLocal.withInitial(OrderEventPool::new);
+
+        private final AtomicReference<OrderEvent> returned = new AtomicReference<>();
+        private OrderEvent free;
+        private int size;
+
+        private OrderEvent acquire(OrderEventType type, Order order, OrderState from, OrderState to,
+                                   long timestampMillis) {
+            if (free == null) {
+                free = returned.getAndSet(null);
+                size = 0;
+                for (OrderEvent kept = free; kept != null; kept = kept.nextFree) {
+                    if (++size == CAPACITY) {
+                        kept.nextFree = null; // the rest is left to the GC
+                        break;
+                    }
+                }
+            }
+            OrderEvent event = free;
+            if (event == null) {
+                event = new OrderEvent(this);
+            } else {
+                free = event.nextFree;
+                event.nextFree = null;
+                size--;
+            }
+            event.init(type, order, from, to, timestampMillis);
+            return event;
+        }
+
+        private void recycle(OrderEvent event) {
+            if (LOCAL.get() == this) {
+                if (size < CAPACITY) {
+                    event.nextFree = free;
+                    free = event;
+                    size++;
+                }
+                return;
+            }
+            OrderEvent head;
+            do {
+                head = returned.get();
+                event.nextFree = head;
+            } while (!returned.compareAndSet(head, event));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package lld03_observer_pattern.order_status_notification_system;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ Allocation per dispatched transition with pooled OrderEvent snapshots, measured
+ with the JVM's per-thread allocation counters (com.sun.management.ThreadMXBean).
+
+ Observers: one synchronous snapshot reader and one AsyncOrderObserver, whose
+ queue retains every snapshot until its worker has handled it. Pass "sync" to
+ leave the async observer out. With it, the fraction of a byte per event left
+ is queue lock wait nodes (the producer parks on a full queue), not snapshots.
+
+ Run: java lld03_observer_pattern.order_status_notification_system.OrderEventAllocationBenchmark [sync]
+ */
+public class OrderEventAllocationBenchmark {
+
+    private static final int WARMUP = 2_000_000;
+    private static final int EVENTS = 10_000_000;
+
+    static final class SnapshotReader implements OrderObserver {
+        long checksum;
+
+        @Override
+        public void onOrderEvent(OrderEvent event) {
+            checksum += event.orderId() + event.to().ordinal() + event.timestampMillis();
+        }
+
+        @Override
+        public void onOrderEvent(OrderEventType event, Order order) {
+            throw new AssertionError("snapshot readers are called with the snapshot");
+        }
+    }
+
+    public static void main(String[] args) {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long producer = Thread.currentThread().threadId();
+
+        Order order = new Order(1, "iPhone", "user@email.com");
+        SnapshotReader sync = new SnapshotReader();
+        SnapshotReader behindQueue = new SnapshotReader();
+        AsyncOrderObserver async = new AsyncOrderObserver(behindQueue, 1024, BackpressurePolicy.BLOCK);
+        order.addObserver(sync);
+        if (args.length == 0 || !args[0].equals("sync")) {
+            order.addObserver(async);
+        }
+
+        OrderEventType[] types = OrderEventType.values();
+        for (int i = 0; i < WARMUP; i++) {
+            order.notifyObservers(types[i % types.length]);
+        }
+
+        long producerBefore = threads.getThreadAllocatedBytes(producer);
+        long totalBefore = threads.getTotalThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < EVENTS; i++) {
+            order.notifyObservers(types[i % types.length]);
+        }
+        long nanos = System.nanoTime() - start;
+        long producerBytes = threads.getThreadAllocatedBytes(producer) - producerBefore;
+        async.close();
+        long totalBytes = threads.getTotalThreadAllocatedBytes() - totalBefore;
+
+        System.out.printf("%,d events, %.1f ns/event%n", EVENTS, (double) nanos / EVENTS);
+        System.out.printf("producer thread: %,d bytes (%.3f bytes/event)%n",
+                producerBytes, (double) producerBytes / EVENTS);
+        System.out.printf("all threads:     %,d bytes (%.3f bytes/event)%n",
+                totalBytes, (double) totalBytes / EVENTS);
+        System.out.println("checksums: " + sync.checksum + " / " + behindQueue.checksum);
+    }
+}
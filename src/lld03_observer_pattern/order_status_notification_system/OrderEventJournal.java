@@ -0,0 +1,186 @@
+package lld03_observer_pattern.order_status_notification_system;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ Append-only, memory-mapped journal of every order transition.
+
+ Layout:
+   - the journal is a directory of fixed-size segment files named after the
+     offset of their first record (00000000000000000000.journal, ...)
+   - every record is 16 bytes: orderId (int) | event ordinal + 1 (int) | timestamp millis (long)
+   - the event field is written last and is never 0 for a real record, so a
+     zero there marks the end of the journal when it is reopened
+
+ The journal is itself an OrderObserver, so subscribing it to an Order is all
+ it takes to record transitions. A restarted consumer remembers the offset it
+ reached and calls replay(offset, handler) to catch up at disk speed.
+ */
+class OrderEventJournal implements OrderObserver, AutoCloseable {
+
+    /** Receives replayed records; primitive arguments so replay allocates nothing per record. */
+    interface RecordHandler {
+        void onRecord(long offset, int orderId, OrderEventType event, long timestampMillis);
+    }
+
+    static final int RECORD_SIZE = 16;
+    static final int DEFAULT_RECORDS_PER_SEGMENT = 1 << 20;
+
+    private static final String SUFFIX = ".journal";
+    private static final OrderEventType[] EVENTS = OrderEventType.values();
+
+    private final Path directory;
+    private final int recordsPerSegment;
+    private final List<MappedByteBuffer> segments = new ArrayList<>();
+
+    private MappedByteBuffer tail;
+    private long nextOffset;
+    private volatile long committed;
+
+    OrderEventJournal(Path directory) throws IOException {
+        this(directory, DEFAULT_RECORDS_PER_SEGMENT);
+    }
+
+    OrderEventJournal(Path directory, int recordsPerSegment) throws IOException {
+        if (recordsPerSegment <= 0) {
+            throw new IllegalArgumentException("recordsPerSegment must be positive: " + recordsPerSegment);
+        }
+        this.directory = Files.createDirectories(directory);
+        this.recordsPerSegment = recordsPerSegment;
+        recover();
+    }
+
+    @Override
+    public void onOrderEvent(OrderEvent event) {
+        append(event.orderId(), event.type(), event.timestampMillis());
+    }
+
+    @Override
+    public void onOrderEvents(List<OrderEvent> events) {
+        for (OrderEvent event : events) {
+            onOrderEvent(event);
+        }
+    }
+
+    @Override
+    public void onOrderEvent(OrderEventType event, Order order) {
+        append(order.getId(), event, System.currentTimeMillis());
+    }
+
+    /** Appends one record and returns its offset. */
+    synchronized long append(int orderId, OrderEventType event, long timestampMillis) {
+        long offset = nextOffset;
+        int slot = (int) (offset % recordsPerSegment);
+        if (slot == 0 && segments.size() * (long) recordsPerSegment == offset) {
+            tail = mapSegment(offset);
+            segments.add(tail);
+        }
+        int position = slot * RECORD_SIZE;
+        tail.putInt(position, orderId);
+        tail.putLong(position + 8, timestampMillis);
+        tail.putInt(position + 4, event.ordinal() + 1);
+        nextOffset = offset + 1;
+        committed = nextOffset;
+        return offset;
+    }
+
+    /**
+     Replays every record from fromOffset up to the current end of the journal.
+     Returns the offset to resume from next time.
+     */
+    long replay(long fromOffset, RecordHandler handler) {
+        if (fromOffset < 0) {
+            throw new IllegalArgumentException("offset must not be negative: " + fromOffset);
+        }
+        long end = committed;
+        long offset = fromOffset;
+        while (offset < end) {
+            MappedByteBuffer segment = segment(offset);
+            int slot = (int) (offset % recordsPerSegment);
+            long segmentEnd = Math.min(end, offset - slot + recordsPerSegment);
+            for (; offset < segmentEnd; offset++, slot++) {
+                int position = slot * RECORD_SIZE;
+                handler.onRecord(offset,
+                        segment.getInt(position),
+                        EVENTS[segment.getInt(position + 4) - 1],
+                        segment.getLong(position + 8));
+            }
+        }
+        return offset;
+    }
+
+    /** Offset the next appended record will get, i.e. the number of records in the journal. */
+    long endOffset() {
+        return committed;
+    }
+
+    /** Flushes dirty pages of every segment to disk. */
+    synchronized void flush() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    @Override
+    public void close() {
+        flush();
+    }
+
+    private synchronized MappedByteBuffer segment(long offset) {
+        return segments.get((int) (offset / recordsPerSegment));
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(p -> p.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+        }
+        for (int i = 0; i < files.size(); i++) {
+            long expected = (long) i * recordsPerSegment;
+            if (!files.get(i).getFileName().toString().equals(segmentName(expected))) {
+                throw new IOException("journal segment missing or out of order: expected " + segmentName(expected));
+            }
+            segments.add(mapSegment(expected));
+        }
+        if (segments.isEmpty()) {
+            return;
+        }
+        tail = segments.get(segments.size() - 1);
+        // records are written contiguously, so the written prefix can be binary searched
+        int low = 0;
+        int high = recordsPerSegment;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (tail.getInt(mid * RECORD_SIZE + 4) != 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        nextOffset = (long) (segments.size() - 1) * recordsPerSegment + low;
+        committed = nextOffset;
+    }
+
+    private MappedByteBuffer mapSegment(long baseOffset) {
+        Path file = directory.resolve(segmentName(baseOffset));
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, (long) recordsPerSegment * RECORD_SIZE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot map journal segment " + file, e);
+        }
+    }
+
+    private static String segmentName(long baseOffset) {
+        return String.format("%020d%s", baseOffset, SUFFIX);
+    }
+}
@@ -0,0 +1,9 @@
+package lld03_observer_pattern.order_status_notification_system;
+
+enum OrderEventType {
+    ORDER_CREATED,
+    ORDER_PAID,
+    ORDER_SHIPPED,
+    ORDER_DELIVERED,
+    ORDER_CANCELLED
+}
@@ -0,0 +1,50 @@
+package lld03_observer_pattern.order_status_notification_system;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ Sustained append and replay throughput of OrderEventJournal on one thread.
+
+ Run: java lld03_observer_pattern.order_status_notification_system.OrderJournalBenchmark [records]
+ */
+public class OrderJournalBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        int records = args.length > 0 ? Integer.parseInt(args[0]) : 20_000_000;
+        OrderEventType[] types = OrderEventType.values();
+        Path directory = Files.createTempDirectory("order-journal");
+
+        try (OrderEventJournal journal = new OrderEventJournal(directory)) {
+            long now = System.currentTimeMillis();
+            long start = System.nanoTime();
+            for (int i = 0; i < records; i++) {
+                journal.append(i, types[i % types.length], now);
+            }
+            long appendNanos = System.nanoTime() - start;
+            System.out.printf("append: %,d records in %d ms -> %,.0f events/s%n",
+                    records, appendNanos / 1_000_000, records * 1e9 / appendNanos);
+
+            long[] checksum = new long[1];
+            start = System.nanoTime();
+            long end = journal.replay(0, (offset, orderId, event, timestamp) -> checksum[0] += orderId + event.ordinal());
+            long replayNanos = System.nanoTime() - start;
+            System.out.printf("replay: %,d records in %d ms -> %,.0f events/s (checksum %d)%n",
+                    end, replayNanos / 1_000_000, end * 1e9 / replayNanos, checksum[0]);
+        }
+
+        // reopening must find the end of the journal again
+        try (OrderEventJournal reopened = new OrderEventJournal(directory)) {
+            System.out.println("recovered end offset: " + reopened.endOffset());
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package lld03_observer_pattern.order_status_notification_system;
+
+/**
+ Cost of OrderDispatchMetrics per observer dispatch: plain observer vs instrumented
+ (every call timed) vs instrumented with 1-in-16 latency sampling.
+
+ Run: java lld03_observer_pattern.order_status_notification_system.OrderMetricsBenchmark
+ */
+public class OrderMetricsBenchmark {
+
+    private static final int EVENTS = 50_000_000;
+    private static final int ROUNDS = 5;
+
+    static final class CountingObserver implements OrderObserver {
+        long handled;
+
+        @Override
+        public void onOrderEvent(OrderEventType event, Order order) {
+            handled += event.ordinal();
+        }
+    }
+
+    public static void main(String[] args) {
+        CountingObserver counting = new CountingObserver();
+
+        Order plain = new Order(1, "iPhone", "user@email.com");
+        plain.addObserver(counting);
+
+        OrderDispatchMetrics everyCall = new OrderDispatchMetrics(1_000_000, 1);
+        Order timed = new Order(2, "iPhone", "user@email.com");
+        timed.addObserver(everyCall.instrument(counting));
+
+        OrderDispatchMetrics sampledMetrics = new OrderDispatchMetrics(1_000_000, 16);
+        Order sampled = new Order(3, "iPhone", "user@email.com");
+        sampled.addObserver(sampledMetrics.instrument(counting));
+
+        OrderEventType[] types = OrderEventType.values();
+        for (int round = 1; round <= ROUNDS; round++) {
+            long plainNanos = run(plain, types);
+            long timedNanos = run(timed, types);
+            long sampledNanos = run(sampled, types);
+            System.out.printf("round %d: plain %.1f ns, timed %.1f ns (+%.1f), sampled 1/16 %.1f ns (+%.1f)%n",
+                    round,
+                    (double) plainNanos / EVENTS,
+                    (double) timedNanos / EVENTS, (double) (timedNanos - plainNanos) / EVENTS,
+                    (double) sampledNanos / EVENTS, (double) (sampledNanos - plainNanos) / EVENTS);
+        }
+        System.out.print(everyCall.report());
+        System.out.println("handled: " + counting.handled);
+    }
+
+    private static long run(Order order, OrderEventType[] types) {
+        long start = System.nanoTime();
+        for (int i = 0; i < EVENTS; i++) {
+            order.notifyObservers(types[i % types.length]);
+        }
+        return System.nanoTime() - start;
+    }
+}
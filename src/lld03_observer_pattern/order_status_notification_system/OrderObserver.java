@@ -0,0 +1,46 @@
+package lld03_observer_pattern.order_status_notification_system;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+interface OrderObserver {
+    void onOrderEvent(OrderEventType event, Order order);
+
+    /**
+     What the subject actually calls: a pooled snapshot of the transition. The default
+     keeps existing observers on the pull model; override it to read the stable
+     from/to/timestamp instead of the live (possibly already changed) Order.
+     The snapshot is only valid during the call unless the observer retains it.
+     */
+    default void onOrderEvent(OrderEvent event) {
+        onOrderEvent(event.type(), event.order());
+    }
+
+    /**
+     Event types this observer wants. The subject indexes observers by these,
+     so an observer is never even called for events it would ignore.
+     */
+    default Set<OrderEventType> interestedIn() {
+        return EnumSet.allOf(OrderEventType.class);
+    }
+
+    /** Bulk transitions arrive here; plain observers just see one call per order. */
+    default void onOrderEvents(OrderEventType event, List<Order> orders) {
+        for (Order order : orders) {
+            onOrderEvent(event, order);
+        }
+    }
+
+    /**
+     What the subject calls for a bulk transition: one snapshot per order that moved,
+     all of the same type, in an immutable list the observer may keep. The default
+     hands every snapshot to onOrderEvent(OrderEvent), so a bulk transition reads
+     exactly like the same transitions one at a time.
+     */
+    default void onOrderEvents(List<OrderEvent> events) {
+        for (OrderEvent event : events) {
+            onOrderEvent(event);
+        }
+    }
+}
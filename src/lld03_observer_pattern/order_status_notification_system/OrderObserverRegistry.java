@@ -0,0 +1,176 @@
+package lld03_observer_pattern.order_status_notification_system;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ Observer list indexed by event type.
+
+ - Each subscription is stored only under the OrderEventTypes its observer declares in interestedIn().
+ - Every event type has its own copy-on-write array, published through an
+   AtomicReferenceArray slot, so dispatch is a lock-free read of a plain array and only
+   touches observers that care about the event. Subscribing copies only the arrays of
+   the observer's own event types, not the whole index.
+ - Unsubscribing is O(1) through the OrderSubscription handle, which also drops its
+   reference to the observer at once. Cancelled, expired and garbage-collected (weak)
+   subscriptions are skipped by dispatch and purged lazily: by the dispatch that runs
+   into them, or by the next subscribe that copies their array.
+ - The transition has already happened when dispatch runs, so an observer that throws
+   is logged and counted (failedCount()) and the observers after it still get the event;
+   the subject's markPaid() etc. return normally.
+ */
+class OrderObserverRegistry {
+
+    private static final OrderSubscription[] NONE = new OrderSubscription[0];
+    private static final OrderEventType[] EVENTS = OrderEventType.values();
+
+    private final AtomicReferenceArray<OrderSubscription[]> byEvent = new AtomicReferenceArray<>(EVENTS.length);
+    private final LongAdder failed = new LongAdder();
+
+    /** Set once any TTL subscription was added, so dispatch only reads the clock when it has to. */
+    private volatile boolean expiring;
+
+    OrderObserverRegistry() {
+        for (int i = 0; i < EVENTS.length; i++) {
+            byEvent.set(i, NONE);
+        }
+    }
+
+    OrderSubscription subscribe(OrderObserver observer) {
+        return add(OrderSubscription.strong(observer, OrderSubscription.NO_EXPIRY), observer);
+    }
+
+    /** The registry will not keep the observer alive. */
+    OrderSubscription subscribeWeak(OrderObserver observer) {
+        return add(OrderSubscription.weak(observer, OrderSubscription.NO_EXPIRY), observer);
+    }
+
+    /** The subscription ends by itself after ttl. */
+    OrderSubscription subscribe(OrderObserver observer, Duration ttl) {
+        return add(OrderSubscription.strong(observer, System.nanoTime() + ttl.toNanos()), observer);
+    }
+
+    /** Cancels every subscription of this observer; O(n), prefer OrderSubscription.cancel(). */
+    void unsubscribe(OrderObserver observer) {
+        for (int i = 0; i < EVENTS.length; i++) {
+            for (OrderSubscription subscription : byEvent.get(i)) {
+                if (subscription.isFor(observer)) {
+                    subscription.cancel();
+                }
+            }
+        }
+    }
+
+    /** Delivers one pooled snapshot of the transition to every interested observer. */
+    void dispatch(OrderEventType event, Order order, OrderState from, OrderState to) {
+        OrderSubscription[] subscriptions = byEvent.get(event.ordinal());
+        if (subscriptions.length == 0) {
+            return;
+        }
+        long now = expiring ? System.nanoTime() : 0;
+        boolean stale = false;
+        OrderEvent snapshot = OrderEvent.pooled(event, order, from, to, System.currentTimeMillis());
+        try {
+            for (OrderSubscription subscription : subscriptions) {
+                OrderObserver observer = subscription.observer(now);
+                if (observer == null) {
+                    stale = true;
+                    continue;
+                }
+                try {
+                    observer.onOrderEvent(snapshot);
+                } catch (RuntimeException e) {
+                    failed(observer, e);
+                }
+            }
+        } finally {
+            snapshot.release();
+        }
+        if (stale) {
+            purge(event.ordinal(), subscriptions);
+        }
+    }
+
+    /** Delivers the snapshots of one bulk transition (all of one event type) as a single callback. */
+    void dispatchBatch(List<OrderEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        int type = events.get(0).type().ordinal();
+        OrderSubscription[] subscriptions = byEvent.get(type);
+        long now = expiring ? System.nanoTime() : 0;
+        boolean stale = false;
+        for (OrderSubscription subscription : subscriptions) {
+            OrderObserver observer = subscription.observer(now);
+            if (observer == null) {
+                stale = true;
+                continue;
+            }
+            try {
+                observer.onOrderEvents(events);
+            } catch (RuntimeException e) {
+                failed(observer, e);
+            }
+        }
+        if (stale) {
+            purge(type, subscriptions);
+        }
+    }
+
+    private void failed(OrderObserver observer, RuntimeException e) {
+        failed.increment();
+        System.err.println("Observer " + observer.getClass().getSimpleName() + " failed: " + e);
+    }
+
+    /** Observer callbacks that threw so far; a batch callback counts once. */
+    long failedCount() {
+        return failed.sum();
+    }
+
+    /** Live subscriptions for this event type. */
+    int observerCount(OrderEventType event) {
+        int count = 0;
+        for (OrderSubscription subscription : byEvent.get(event.ordinal())) {
+            if (subscription.isActive()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private synchronized OrderSubscription add(OrderSubscription subscription, OrderObserver observer) {
+        if (subscription.expires()) {
+            expiring = true;
+        }
+        long now = System.nanoTime();
+        for (OrderEventType event : observer.interestedIn()) {
+            int type = event.ordinal();
+            byEvent.set(type, copyLive(byEvent.get(type), subscription, now));
+        }
+        return subscription;
+    }
+
+    private synchronized void purge(int type, OrderSubscription[] seen) {
+        if (byEvent.get(type) == seen) { // concurrent dispatches may all have seen the same dead entries
+            byEvent.set(type, copyLive(seen, null, System.nanoTime()));
+        }
+    }
+
+    /** Copies the live part of one event type's array, plus the new subscription if there is one. */
+    private static OrderSubscription[] copyLive(OrderSubscription[] current, OrderSubscription added, long now) {
+        OrderSubscription[] next = new OrderSubscription[current.length + (added == null ? 0 : 1)];
+        int size = 0;
+        for (OrderSubscription subscription : current) {
+            if (subscription.observer(now) != null) {
+                next[size++] = subscription;
+            }
+        }
+        if (added != null) {
+            next[size++] = added;
+        }
+        return size == 0 ? NONE : size == next.length ? next : Arrays.copyOf(next, size);
+    }
+}
@@ -0,0 +1,233 @@
+package lld03_observer_pattern.order_status_notification_system;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ In-memory store for millions of live orders, keyed by the primitive order id.
+
+ - Sharded: the id hash picks a shard, each shard is an open-addressing int → Order
+   table with its own StampedLock. Lookups are optimistic (no lock taken unless a
+   writer raced them), inserts only lock their own shard.
+ - Orders keep their state as a byte (see Order), and every order created here shares
+   the repository's single OrderObserverRegistry, so an order costs one small object
+   plus its table slot instead of carrying its own observer list.
+
+ Because the registry is shared, observers added here (or through any of its orders)
+ see the events of every order in the repository.
+ */
+class OrderRepository implements OrderSubject {
+
+    private static final int DEFAULT_SHARDS = 64;
+    private static final int DEFAULT_SHARD_CAPACITY = 1024;
+
+    private final OrderObserverRegistry observers = new OrderObserverRegistry();
+    private final Shard[] shards;
+    private final int shardMask;
+    private final int shardBits;
+
+    OrderRepository() {
+        this(DEFAULT_SHARDS, DEFAULT_SHARD_CAPACITY);
+    }
+
+    /** shards is rounded up to a power of two; expectedPerShard presizes every shard. */
+    OrderRepository(int shards, int expectedPerShard) {
+        if (shards <= 0 || expectedPerShard <= 0) {
+            throw new IllegalArgumentException("shards and expectedPerShard must be positive");
+        }
+        int count = shards == 1 ? 1 : Integer.highestOneBit(shards - 1) << 1;
+        this.shards = new Shard[count];
+        this.shardMask = count - 1;
+        this.shardBits = Integer.numberOfTrailingZeros(count);
+        for (int i = 0; i < count; i++) {
+            this.shards[i] = new Shard(expectedPerShard, shardBits);
+        }
+    }
+
+    /** Creates and stores a new order; fails if the id is already taken. */
+    Order create(int id, String name, String userEmail) {
+        int hash = mix(id);
+        Order order = new Order(id, name, userEmail, observers);
+        if (!shards[hash & shardMask].putIfAbsent(id, hash >>> shardBits, order)) {
+            throw new IllegalStateException("order " + id + " already exists");
+        }
+        order.notifyObservers(OrderEventType.ORDER_CREATED);
+        return order;
+    }
+
+    /** The order with this id, or null. */
+    Order find(int id) {
+        int hash = mix(id);
+        return shards[hash & shardMask].get(id, hash >>> shardBits);
+    }
+
+    /**
+     Moves every listed order to target and notifies observers once for the whole batch
+     (BatchOrderObserver gets a single callback, plain observers one call per order),
+     with a snapshot of each transition.
+     Unknown ids and orders whose state does not allow the move are skipped.
+     Returns the orders that actually transitioned.
+     */
+    List<Order> transitionAll(int[] ids, OrderState target) {
+        List<Order> moved = new ArrayList<>(ids.length);
+        List<OrderEvent> events = new ArrayList<>(ids.length);
+        long now = System.currentTimeMillis();
+        for (int id : ids) {
+            Order order = find(id);
+            OrderState from = order == null ? null : order.tryTransition(target);
+            if (from != null) {
+                moved.add(order);
+                // the snapshot is taken from this CAS, not from the order when observers read it
+                events.add(OrderEvent.detached(target.event(), order, from, target, now));
+            }
+        }
+        observers.dispatchBatch(Collections.unmodifiableList(events));
+        return Collections.unmodifiableList(moved);
+    }
+
+    List<Order> markAllPaid(int[] ids) {
+        return transitionAll(ids, OrderState.PAID);
+    }
+
+    int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    @Override
+    public void addObserver(OrderObserver observer) {
+        observers.subscribe(observer);
+    }
+
+    @Override
+    public void removeObserver(OrderObserver observer) {
+        observers.unsubscribe(observer);
+    }
+
+    @Override
+    public OrderSubscription subscribe(OrderObserver observer) {
+        return observers.subscribe(observer);
+    }
+
+    @Override
+    public OrderSubscription subscribeWeak(OrderObserver observer) {
+        return observers.subscribeWeak(observer);
+    }
+
+    @Override
+    public OrderSubscription subscribe(OrderObserver observer, Duration ttl) {
+        return observers.subscribe(observer, ttl);
+    }
+
+    private static int mix(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /** Keys and values are swapped together on resize, so a reader never mixes two generations. */
+    private static final class Table {
+        final int[] keys;
+        final Order[] values; // null slot = empty, so every int (including 0) is a valid id
+
+        Table(int capacity) {
+            keys = new int[capacity];
+            values = new Order[capacity];
+        }
+    }
+
+    private static final class Shard {
+
+        private final StampedLock lock = new StampedLock();
+        private final int shardBits;
+        private Table table;
+        private int size;
+
+        Shard(int expected, int shardBits) {
+            this.shardBits = shardBits;
+            this.table = new Table(Integer.highestOneBit(Math.max(2, expected) * 2 - 1) << 1);
+        }
+
+        Order get(int id, int hash) {
+            long stamp = lock.tryOptimisticRead();
+            Order found = probe(table, id, hash);
+            if (lock.validate(stamp)) {
+                return found;
+            }
+            stamp = lock.readLock();
+            try {
+                return probe(table, id, hash);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        boolean putIfAbsent(int id, int hash, Order order) {
+            long stamp = lock.writeLock();
+            try {
+                if (probe(table, id, hash) != null) {
+                    return false;
+                }
+                if ((size + 1) * 2 > table.values.length) {
+                    resize();
+                }
+                insert(table, id, hash, order);
+                size++;
+                return true;
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        int size() {
+            long stamp = lock.readLock();
+            try {
+                return size;
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        private void resize() {
+            Table old = table;
+            Table grown = new Table(old.values.length * 2);
+            for (int i = 0; i < old.values.length; i++) {
+                if (old.values[i] != null) {
+                    int id = old.keys[i];
+                    insert(grown, id, mix(id) >>> shardBits, old.values[i]);
+                }
+            }
+            table = grown;
+        }
+
+        private static Order probe(Table table, int id, int hash) {
+            int[] keys = table.keys;
+            Order[] values = table.values;
+            int mask = values.length - 1;
+            for (int i = hash & mask; ; i = (i + 1) & mask) {
+                Order order = values[i];
+                if (order == null) {
+                    return null;
+                }
+                if (keys[i] == id) {
+                    return order;
+                }
+            }
+        }
+
+        private static void insert(Table table, int id, int hash, Order order) {
+            int mask = table.values.length - 1;
+            int i = hash & mask;
+            while (table.values[i] != null) {
+                i = (i + 1) & mask;
+            }
+            table.keys[i] = id;
+            table.values[i] = order;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package lld03_observer_pattern.order_status_notification_system;
+
+/**
+ Heap cost per order: OrderRepository vs standalone Orders (each with its own observer list).
+
+ Name and email are shared strings so only the per-order structure is measured;
+ real payload strings come on top of both numbers.
+
+ Run: java -Xmx4g lld03_observer_pattern.order_status_notification_system.OrderRepositoryFootprint [orders]
+ */
+public class OrderRepositoryFootprint {
+
+    public static void main(String[] args) {
+        int orders = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        String name = "iPhone";
+        String email = "user@email.com";
+
+        long before = usedHeap();
+        OrderRepository repository = new OrderRepository(64, orders / 64);
+        for (int id = 0; id < orders; id++) {
+            repository.create(id, name, email);
+        }
+        long repositoryBytes = usedHeap() - before;
+        report("OrderRepository", orders, repositoryBytes);
+
+        long hits = 0;
+        long start = System.nanoTime();
+        for (int id = 0; id < orders; id++) {
+            if (repository.find(id) != null) {
+                hits++;
+            }
+        }
+        long lookupNanos = System.nanoTime() - start;
+        System.out.printf("lookups: %,d hits, %.1f ns/lookup%n", hits, (double) lookupNanos / orders);
+        repository = null;
+
+        // standalone orders are far bigger; a tenth of the count is enough for the per-order figure
+        int standaloneCount = orders / 10;
+        before = usedHeap();
+        Order[] standalone = new Order[standaloneCount];
+        for (int id = 0; id < standaloneCount; id++) {
+            standalone[id] = new Order(id, name, email);
+        }
+        long standaloneBytes = usedHeap() - before;
+        report("standalone Order[]", standaloneCount, standaloneBytes);
+        System.out.println("kept alive: " + standalone.length);
+    }
+
+    private static void report(String label, int orders, long bytes) {
+        System.out.printf("%s: %,d orders, %,d MB, %.1f bytes/order%n",
+                label, orders, bytes >> 20, (double) bytes / orders);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,61 @@
+package lld03_observer_pattern.order_status_notification_system;
+
+/**
+ Order lifecycle: CREATED → PAID → SHIPPED → DELIVERED, and CANCELLED from any
+ non-terminal state. Each state knows the event announcing it and which
+ states may follow it, so Order needs no if/else to validate a transition.
+ */
+enum OrderState {
+    CREATED(OrderEventType.ORDER_CREATED),
+    PAID(OrderEventType.ORDER_PAID),
+    SHIPPED(OrderEventType.ORDER_SHIPPED),
+    DELIVERED(OrderEventType.ORDER_DELIVERED),
+    CANCELLED(OrderEventType.ORDER_CANCELLED);
+
+    private static final OrderState[] BY_CODE = values();
+
+    static {
+        CREATED.allow(PAID, CANCELLED);
+        PAID.allow(SHIPPED, CANCELLED);
+        SHIPPED.allow(DELIVERED, CANCELLED);
+    }
+
+    private final OrderEventType event;
+    private int next; // bit set of allowed target ordinals
+
+    OrderState(OrderEventType event) {
+        this.event = event;
+    }
+
+    private void allow(OrderState... targets) {
+        for (OrderState target : targets) {
+            next |= 1 << target.ordinal();
+        }
+    }
+
+    boolean canMoveTo(OrderState target) {
+        return (next & (1 << target.ordinal())) != 0;
+    }
+
+    OrderEventType event() {
+        return event;
+    }
+
+    byte code() {
+        return (byte) ordinal();
+    }
+
+    static OrderState of(byte code) {
+        return BY_CODE[code];
+    }
+
+    /** The state an event announces (ORDER_PAID → PAID). */
+    static OrderState announcedBy(OrderEventType event) {
+        for (OrderState state : BY_CODE) {
+            if (state.event == event) {
+                return state;
+            }
+        }
+        throw new IllegalArgumentException("no state for " + event);
+    }
+}
@@ -0,0 +1,17 @@
+package lld03_observer_pattern.order_status_notification_system;
+
+import java.time.Duration;
+
+interface OrderSubject {
+    void addObserver(OrderObserver observer);
+    void removeObserver(OrderObserver observer);
+
+    /** Like addObserver, but returns a handle whose cancel() unsubscribes in O(1). */
+    OrderSubscription subscribe(OrderObserver observer);
+
+    /** For transient observers (dashboards, sessions): the subject does not keep them alive. */
+    OrderSubscription subscribeWeak(OrderObserver observer);
+
+    /** The subscription ends by itself once ttl has passed. */
+    OrderSubscription subscribe(OrderObserver observer, Duration ttl);
+}
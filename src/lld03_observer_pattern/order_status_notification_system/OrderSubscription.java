@@ -0,0 +1,66 @@
+package lld03_observer_pattern.order_status_notification_system;
+
+import java.lang.ref.WeakReference;
+
+/**
+ Handle for one observer registration.
+
+ - cancel() is O(1): it drops the handle's reference to the observer, so a cancelled
+   observer can be collected at once. The registry drops the dead handle itself lazily,
+   the next time it dispatches that event type or copies its array.
+ - A weak subscription does not keep the observer alive; once the observer is
+   garbage collected the subscription is dead.
+ - A TTL subscription is dead once its deadline has passed; the first check that
+   sees it expired drops the observer reference the same way.
+ */
+class OrderSubscription {
+
+    static final long NO_EXPIRY = Long.MAX_VALUE;
+
+    private volatile OrderObserver observer;          // null for weak subscriptions and once dead
+    private final WeakReference<OrderObserver> weakObserver;
+    private final long expiresAtNanos;
+
+    private OrderSubscription(OrderObserver observer, WeakReference<OrderObserver> weakObserver, long expiresAtNanos) {
+        this.observer = observer;
+        this.weakObserver = weakObserver;
+        this.expiresAtNanos = expiresAtNanos;
+    }
+
+    static OrderSubscription strong(OrderObserver observer, long expiresAtNanos) {
+        return new OrderSubscription(observer, null, expiresAtNanos);
+    }
+
+    static OrderSubscription weak(OrderObserver observer, long expiresAtNanos) {
+        return new OrderSubscription(null, new WeakReference<>(observer), expiresAtNanos);
+    }
+
+    void cancel() {
+        observer = null;
+        if (weakObserver != null) {
+            weakObserver.clear();
+        }
+    }
+
+    boolean isActive() {
+        return observer(System.nanoTime()) != null;
+    }
+
+    boolean expires() {
+        return expiresAtNanos != NO_EXPIRY;
+    }
+
+    /** The observer to call, or null if this subscription is cancelled, expired or collected. */
+    OrderObserver observer(long nowNanos) {
+        if (expires() && nowNanos - expiresAtNanos > 0) {
+            cancel();
+            return null;
+        }
+        OrderObserver strong = observer;
+        return strong != null ? strong : weakObserver == null ? null : weakObserver.get();
+    }
+
+    boolean isFor(OrderObserver candidate) {
+        return candidate != null && (candidate == observer || (weakObserver != null && candidate == weakObserver.get()));
+    }
+}
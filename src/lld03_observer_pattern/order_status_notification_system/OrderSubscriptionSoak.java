@@ -0,0 +1,57 @@
+package lld03_observer_pattern.order_status_notification_system;
+
+import java.time.Duration;
+
+/**
+ Soak run for subscription handles: a long-lived order with a few permanent observers
+ and millions of transient ones (cancelled, weak-and-forgotten, or short TTL).
+ Used heap after GC is printed every million cycles and must stay flat.
+
+ Run: java -Xmx256m lld03_observer_pattern.order_status_notification_system.OrderSubscriptionSoak [cycles]
+ */
+public class OrderSubscriptionSoak {
+
+    static final class DashboardSession implements OrderObserver {
+        final long[] payload = new long[16]; // make a leak visible quickly
+        long seen;
+
+        @Override
+        public void onOrderEvent(OrderEventType event, Order order) {
+            seen++;
+        }
+    }
+
+    public static void main(String[] args) {
+        int cycles = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        Order order = new Order(1, "iPhone", "user@email.com");
+        DashboardSession permanent = new DashboardSession();
+        order.addObserver(permanent);
+
+        OrderEventType[] types = OrderEventType.values();
+        long baseline = usedHeap();
+        System.out.printf("baseline: %,d KB%n", baseline >> 10);
+
+        for (int i = 1; i <= cycles; i++) {
+            switch (i % 3) {
+                case 0 -> order.subscribe(new DashboardSession()).cancel();
+                case 1 -> order.subscribeWeak(new DashboardSession()); // never cancelled, just dropped
+                default -> order.subscribe(new DashboardSession(), Duration.ofNanos(1));
+            }
+            if (i % 16 == 0) {
+                order.notifyObservers(types[i % types.length]);
+            }
+            if (i % 1_000_000 == 0) {
+                long used = usedHeap();
+                System.out.printf("%,d cycles: used heap %,d KB (%+,d KB vs baseline)%n",
+                        i, used >> 10, (used - baseline) >> 10);
+            }
+        }
+        System.out.println("permanent observer saw " + permanent.seen + " events");
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,6 @@
+package lld03_observer_pattern.stock_price_monitoring_system;
+
+enum AlertDirection {
+    ABOVE, // fires when the price moves from <= threshold to > threshold
+    BELOW  // fires when the price moves from >= threshold to < threshold
+}
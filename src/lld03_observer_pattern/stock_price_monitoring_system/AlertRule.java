@@ -0,0 +1,21 @@
+package lld03_observer_pattern.stock_price_monitoring_system;
+
+class AlertRule {
+
+    final long id;
+    final int symbolId;
+    final AlertDirection direction;
+    final double threshold;
+
+    AlertRule(long id, int symbolId, AlertDirection direction, double threshold) {
+        this.id = id;
+        this.symbolId = symbolId;
+        this.direction = direction;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public String toString() {
+        return "rule #" + id + " (" + direction + " " + threshold + ")";
+    }
+}
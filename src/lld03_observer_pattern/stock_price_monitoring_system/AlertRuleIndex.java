@@ -0,0 +1,95 @@
+package lld03_observer_pattern.stock_price_monitoring_system;
+
+import java.util.Comparator;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ Per-symbol sorted index of user alert rules.
+
+ Rules live in two skip lists per symbol (ABOVE and BELOW), ordered by threshold.
+ A move previous → current crosses exactly:
+   - ABOVE rules with previous <= threshold < current   (price went up)
+   - BELOW rules with current < threshold <= previous   (price went down)
+ which is one range query on one list: O(log n + k) for k crossed rules,
+ instead of checking every rule on every tick.
+
+ ConcurrentSkipListSet is lock-free, so rules can be added and removed while
+ ticks are being matched.
+ */
+class AlertRuleIndex {
+
+    /** Receives every crossed rule of a tick. */
+    interface Matcher {
+        void onCrossed(AlertRule rule);
+    }
+
+    private static final Comparator<AlertRule> BY_THRESHOLD =
+            Comparator.<AlertRule>comparingDouble(rule -> rule.threshold).thenComparingLong(rule -> rule.id);
+
+    private final AtomicReferenceArray<NavigableSet<AlertRule>> above;
+    private final AtomicReferenceArray<NavigableSet<AlertRule>> below;
+    private final AtomicLong ids = new AtomicLong();
+
+    AlertRuleIndex(int symbols) {
+        above = new AtomicReferenceArray<>(symbols);
+        below = new AtomicReferenceArray<>(symbols);
+    }
+
+    AlertRule add(int symbolId, AlertDirection direction, double threshold) {
+        if (Double.isNaN(threshold)) {
+            throw new IllegalArgumentException("threshold must be a number");
+        }
+        AlertRule rule = new AlertRule(ids.incrementAndGet(), symbolId, direction, threshold);
+        rules(symbolId, direction, true).add(rule);
+        return rule;
+    }
+
+    boolean remove(AlertRule rule) {
+        NavigableSet<AlertRule> rules = rules(rule.symbolId, rule.direction, false);
+        return rules != null && rules.remove(rule);
+    }
+
+    /** Calls matcher for every rule of the symbol crossed by the move; returns how many. */
+    int match(int symbolId, double previousPrice, double currentPrice, Matcher matcher) {
+        NavigableSet<AlertRule> crossed;
+        if (currentPrice > previousPrice) {
+            NavigableSet<AlertRule> rules = above.get(symbolId);
+            if (rules == null) {
+                return 0;
+            }
+            crossed = rules.subSet(probe(previousPrice, Long.MIN_VALUE), true, probe(currentPrice, Long.MIN_VALUE), false);
+        } else if (currentPrice < previousPrice) {
+            NavigableSet<AlertRule> rules = below.get(symbolId);
+            if (rules == null) {
+                return 0;
+            }
+            crossed = rules.subSet(probe(currentPrice, Long.MAX_VALUE), false, probe(previousPrice, Long.MAX_VALUE), true);
+        } else {
+            return 0; // unchanged or NaN: nothing crossed
+        }
+        int count = 0;
+        for (AlertRule rule : crossed) {
+            matcher.onCrossed(rule);
+            count++;
+        }
+        return count;
+    }
+
+    private NavigableSet<AlertRule> rules(int symbolId, AlertDirection direction, boolean create) {
+        AtomicReferenceArray<NavigableSet<AlertRule>> side = direction == AlertDirection.ABOVE ? above : below;
+        NavigableSet<AlertRule> rules = side.get(symbolId);
+        if (rules == null && create) {
+            side.compareAndSet(symbolId, null, new ConcurrentSkipListSet<>(BY_THRESHOLD));
+            rules = side.get(symbolId);
+        }
+        return rules;
+    }
+
+    /** Search key that sorts before (MIN_VALUE) or after (MAX_VALUE) every rule with this threshold. */
+    private static AlertRule probe(double threshold, long id) {
+        return new AlertRule(id, -1, null, threshold);
+    }
+}
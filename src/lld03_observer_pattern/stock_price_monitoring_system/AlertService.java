@@ -0,0 +1,28 @@
+package lld03_observer_pattern.stock_price_monitoring_system;
+
+class AlertService implements StockObserver{
+
+    // user-defined above/below rules, matched by range query instead of one check per rule
+    private final AlertRuleIndex rules;
+
+    public AlertService(int symbols) {
+        this.rules = new AlertRuleIndex(symbols);
+    }
+
+    public AlertRule addRule(int symbolId, AlertDirection direction, double threshold) {
+        return rules.add(symbolId, direction, threshold);
+    }
+
+    public boolean removeRule(AlertRule rule) {
+        return rules.remove(rule);
+    }
+
+    @Override
+    public void onStockUpdate(StockEventType stockEventType, Stock Stock) {
+        if(stockEventType == StockEventType.PRICE_UPDATED) {
+            rules.match(Stock.getId(), Stock.getPreviousPrice(), Stock.getCurrentPrice(),
+                    rule -> System.out.println("Stock price crosseed the threshold: "
+                            + Stock.getSymbol() + " " + Stock.getCurrentPrice() + ", " + rule));
+        }
+    }
+}
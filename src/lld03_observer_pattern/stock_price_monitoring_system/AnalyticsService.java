@@ -0,0 +1,17 @@
+package lld03_observer_pattern.stock_price_monitoring_system;
+
+class AnalyticsService implements StockObserver{
+
+    // O(1) per tick aggregates per symbol, readable from any thread without locks
+    private final StreamingAnalytics analytics;
+
+    public AnalyticsService(StreamingAnalytics analytics) {
+        this.analytics = analytics;
+    }
+
+    @Override
+    public void onStockUpdate(StockEventType stockEventType, Stock Stock) {
+        //sending event to logger service
+        analytics.onTick(Stock.getId(), Stock.getCurrentPrice(), Stock.getTimestamp());
+    }
+}
@@ -0,0 +1,129 @@
+package lld03_observer_pattern.stock_price_monitoring_system;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ Rolls ticks into OHLCV bars for every symbol and interval (e.g. 1s, 1m, 1h).
+
+ - The open bar of each (symbol, interval) lives in primitive arrays; a tick
+   updates high/low/close/ticks in place, O(intervals), no allocation.
+ - A bar closes when the first tick of a later bar arrives (or closeBars(now)
+   is called for quiet symbols) and is appended to the CandleStore.
+ - Bars are aligned on the tick timestamp, which is epoch nanos: the feed's own,
+   or Stock.epochNanos() for Stock.updatePrice(price). So a bar's 1s/1m/1h
+   boundaries are wall-clock ones and a series can be appended to across runs.
+
+ Ticks carry no traded size, so the volume of a bar is its tick count.
+ One writer per symbol, like the other stock observers. A bar the store cannot
+ take (disk full, a bar too wide to encode) is logged and counted, never thrown
+ back into Stock.updatePrice.
+ */
+class CandleAggregator implements StockObserver {
+
+    private static final long NO_BAR = Long.MIN_VALUE;
+
+    private final CandleStore store;
+    private final Duration[] intervals;
+    private final long[] intervalNanos;
+    private final long[] start;     // [symbol * intervals + interval]
+    private final double[] open;
+    private final double[] high;
+    private final double[] low;
+    private final double[] close;
+    private final int[] ticks;
+    private final CandleSeries[] series;
+    private final String[] symbols;
+    private final AtomicLong failures = new AtomicLong();
+
+    CandleAggregator(CandleStore store, int symbols, Duration... intervals) {
+        if (intervals.length == 0) {
+            throw new IllegalArgumentException("need at least one interval");
+        }
+        this.store = store;
+        this.intervals = intervals.clone();
+        this.intervalNanos = new long[intervals.length];
+        for (int i = 0; i < intervals.length; i++) {
+            intervalNanos[i] = intervals[i].toNanos();
+        }
+        int slots = symbols * intervals.length;
+        this.start = new long[slots];
+        Arrays.fill(start, NO_BAR);
+        this.open = new double[slots];
+        this.high = new double[slots];
+        this.low = new double[slots];
+        this.close = new double[slots];
+        this.ticks = new int[slots];
+        this.series = new CandleSeries[slots];
+        this.symbols = new String[symbols];
+    }
+
+    @Override
+    public void onStockUpdate(StockEventType stockEventType, Stock Stock) {
+        if (stockEventType == StockEventType.PRICE_UPDATED) {
+            int id = Stock.getId();
+            if (symbols[id] == null) {
+                symbols[id] = Stock.getSymbol();
+            }
+            onTick(id, Stock.getCurrentPrice(), Stock.getTimestamp());
+        }
+    }
+
+    void onTick(int symbolId, double price, long timestamp) {
+        int base = symbolId * intervals.length;
+        for (int i = 0; i < intervals.length; i++) {
+            int slot = base + i;
+            long barStart = timestamp - Math.floorMod(timestamp, intervalNanos[i]);
+            if (barStart != start[slot]) {
+                if (start[slot] != NO_BAR) {
+                    persist(symbolId, i, slot);
+                }
+                start[slot] = barStart;
+                open[slot] = price;
+                high[slot] = price;
+                low[slot] = price;
+                ticks[slot] = 0;
+            } else if (price > high[slot]) {
+                high[slot] = price;
+            } else if (price < low[slot]) {
+                low[slot] = price;
+            }
+            close[slot] = price;
+            ticks[slot]++;
+        }
+    }
+
+    /** Closes every open bar of the symbol whose interval has ended by now. */
+    void closeBars(int symbolId, long now) {
+        int base = symbolId * intervals.length;
+        for (int i = 0; i < intervals.length; i++) {
+            int slot = base + i;
+            if (start[slot] != NO_BAR && now - start[slot] >= intervalNanos[i]) {
+                persist(symbolId, i, slot);
+                start[slot] = NO_BAR;
+            }
+        }
+    }
+
+    private void persist(int symbolId, int interval, int slot) {
+        try {
+            CandleSeries target = series[slot];
+            if (target == null) {
+                // resolved once per (symbol, interval), the only place the symbol string is used
+                String symbol = symbols[symbolId] != null ? symbols[symbolId] : Integer.toString(symbolId);
+                target = store.series(symbol, intervals[interval]);
+                series[slot] = target;
+            }
+            target.append(start[slot], open[slot], high[slot], low[slot], close[slot], ticks[slot]);
+        } catch (RuntimeException e) {
+            failures.incrementAndGet();
+            System.err.println("candle " + symbolId + "/" + intervals[interval] + " not stored: " + e);
+        }
+    }
+
+    /** Closed bars the store rejected; they are logged and dropped. */
+    long failures() {
+        return failures.get();
+    }
+}
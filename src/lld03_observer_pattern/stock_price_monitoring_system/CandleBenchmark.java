@@ -0,0 +1,98 @@
+package lld03_observer_pattern.stock_price_monitoring_system;
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ Candle aggregation and range reads over a generated feed.
+
+ A synthetic feed (100 symbols, ~1.4 h at 1,000 ticks/s) is replayed through
+ Stock.updatePrice into a CandleAggregator with 1s, 1m and 1h bars. Then the
+ store is reopened and a whole-day range of 1m closes is read for every symbol,
+ mapping only the TIME and CLOSE columns; the result is checked against closes
+ recomputed from the ticks.
+
+ Run: java lld03_observer_pattern.stock_price_monitoring_system.CandleBenchmark [ticks]
+ */
+public class CandleBenchmark {
+
+    private static final int SYMBOLS = 100;
+    private static final long MINUTE = Duration.ofMinutes(1).toNanos();
+    private static final long DAY = Duration.ofDays(1).toNanos();
+
+    public static void main(String[] args) throws IOException {
+        long ticks = args.length > 0 ? Long.parseLong(args[0]) : 5_000_000L;
+        Path feed = Files.createTempFile("ticks", ".bin");
+        Path directory = Files.createTempDirectory("candles");
+        try {
+            TickFile.generate(feed, SYMBOLS, ticks, 1_000, 0.0005, 42);
+            double[] lastClose = new double[SYMBOLS];
+            long[] lastMinute = new long[SYMBOLS];
+
+            try (TickFile file = TickFile.open(feed); CandleStore store = new CandleStore(directory)) {
+                StockRepository stocks = new StockRepository(SYMBOLS);
+                CandleAggregator candles = new CandleAggregator(store, SYMBOLS,
+                        Duration.ofSeconds(1), Duration.ofMinutes(1), Duration.ofHours(1));
+                for (int id = 0; id < SYMBOLS; id++) {
+                    stocks.list("SYM" + id, 100).addObserver(candles);
+                }
+                long start = System.nanoTime();
+                long end = file.replay((index, symbolId, price, timestamp) -> {
+                    stocks.onTick(symbolId, price, timestamp);
+                    lastClose[symbolId] = price;
+                    lastMinute[symbolId] = timestamp - timestamp % MINUTE;
+                });
+                long nanos = System.nanoTime() - start;
+                System.out.printf("aggregated %,d ticks (%d min of feed) in %d ms -> %,.0f ticks/s%n",
+                        file.count(), end / MINUTE, nanos / 1_000_000, file.count() * 1e9 / nanos);
+                for (int id = 0; id < SYMBOLS; id++) {
+                    candles.closeBars(id, end + DAY);
+                }
+            }
+            System.out.printf("on disk: %,d KB for %d symbols x 3 intervals (column files preallocated, sparse)%n", size(directory) >> 10, SYMBOLS);
+
+            try (CandleStore store = new CandleStore(directory)) {
+                long start = System.nanoTime();
+                long bars = 0;
+                boolean matches = true;
+                for (int id = 0; id < SYMBOLS; id++) {
+                    CandleSeries series = store.series("SYM" + id, Duration.ofMinutes(1));
+                    CandleSeries.Range day = series.range(0, DAY);
+                    IntBuffer times = day.column(CandleColumn.TIME);
+                    IntBuffer closes = day.column(CandleColumn.CLOSE);
+                    int last = day.size() - 1;
+                    bars += day.size();
+                    matches &= day.time(times, last) == lastMinute[id]
+                            && Math.abs(day.price(closes, last) - lastClose[id]) < 1.0 / CandleStore.PRICE_SCALE;
+                }
+                long nanos = System.nanoTime() - start;
+                System.out.printf("range read: %,d 1m bars of %d symbols (TIME + CLOSE) in %d us, last close matches ticks: %b%n",
+                        bars, SYMBOLS, nanos / 1_000, matches);
+            }
+        } finally {
+            Files.deleteIfExists(feed);
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                    Files.delete(path);
+                }
+            }
+        }
+    }
+
+    private static long size(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).mapToLong(path -> {
+                try {
+                    return Files.size(path);
+                } catch (IOException e) {
+                    return 0;
+                }
+            }).sum();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package lld03_observer_pattern.stock_price_monitoring_system;
+
+/** Columns of a candle series; each one is its own file, so a query maps only what it reads. */
+enum CandleColumn {
+    TIME,   // bar index since its frame's base time
+    OPEN,   // price ticks relative to its frame's reference price
+    HIGH,
+    LOW,
+    CLOSE,
+    TICKS   // ticks in the bar (tick volume: the feed carries no traded size)
+}
@@ -0,0 +1,308 @@
+package lld03_observer_pattern.stock_price_monitoring_system;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ Closed bars of one symbol at one interval, stored column by column.
+
+ Layout of the series directory:
+   - series.meta: interval nanos | base time | reference price ticks | bar count | extra frames (5 longs)
+   - frames.meta: one record per extra frame: first bar | base time | reference price ticks (3 longs)
+   - one <column>.col file per CandleColumn, an array of ints
+ Every value is encoded as an int against its frame of reference, which halves a
+ bar compared to longs/doubles and keeps random access. This is frame-of-reference
+ encoding, not bar-to-bar deltas: a delta column would need a prefix sum over
+ everything before a bar to read it, and TIME could not be binary-searched.
+   - TIME is (bar start - frame base time) / interval, so it is sorted and a time
+     range becomes two binary searches
+   - OPEN..CLOSE are price ticks (1 / CandleStore.PRICE_SCALE) minus the frame's
+     reference price (the open of the frame's first bar)
+ A bar that does not fit its frame (the price moved more than ±214k units away
+ from the reference, or the series outlived 2^31 intervals) starts a new frame
+ based on itself. Frames are rare, so finding a bar's frame is a search over a
+ handful of entries; the series has one frame for as long as nothing overflows.
+ Column files are memory-mapped and remapped twice as large when full.
+
+ One writer (the symbol's aggregator shard); readers on any thread see bars up
+ to count(), which is published after the columns and frames are written.
+ */
+class CandleSeries {
+
+    private static final String META = "series.meta";
+    private static final String FRAMES = "frames.meta";
+    private static final int META_SIZE = 40;
+    private static final int FRAME_SIZE = 24;
+    private static final int INITIAL_CAPACITY = 4096;
+    private static final CandleColumn[] COLUMNS = CandleColumn.values();
+
+    private final Path directory;
+    private final long intervalNanos;
+    private final MappedByteBuffer meta;
+    private final MappedByteBuffer[] columns = new MappedByteBuffer[COLUMNS.length];
+
+    private MappedByteBuffer extraFrames;
+    private int capacity;
+    private long lastStart;
+    private volatile Frames frames;
+    private volatile int count;
+
+    CandleSeries(Path directory, long intervalNanos) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.intervalNanos = intervalNanos;
+        this.meta = map(directory.resolve(META), META_SIZE);
+        long stored = meta.getLong(0);
+        if (stored == 0) {
+            meta.putLong(0, intervalNanos);
+        } else if (stored != intervalNanos) {
+            throw new IOException("series " + directory + " has interval " + stored + " ns, not " + intervalNanos);
+        }
+        Frames loaded = new Frames(new int[] {0}, new long[] {meta.getLong(8)}, new long[] {meta.getLong(16)});
+        int extra = (int) meta.getLong(32);
+        if (extra > 0) {
+            extraFrames = map(directory.resolve(FRAMES), (long) extra * FRAME_SIZE);
+            for (int f = 0; f < extra; f++) {
+                int position = f * FRAME_SIZE;
+                loaded = loaded.plus((int) extraFrames.getLong(position),
+                        extraFrames.getLong(position + 8), extraFrames.getLong(position + 16));
+            }
+        }
+        this.frames = loaded;
+        this.count = (int) meta.getLong(24);
+        this.capacity = Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(1, count)) << 1);
+        if (count > 0) {
+            lastStart = barStart(loaded, count - 1, column(CandleColumn.TIME).getInt((count - 1) * 4));
+        }
+    }
+
+    long intervalNanos() {
+        return intervalNanos;
+    }
+
+    int count() {
+        return count;
+    }
+
+    /**
+     Persists a closed bar; bars must come in time order. Throws IllegalArgumentException
+     for out-of-order bars and for a bar whose own range does not fit 32 bits.
+     */
+    void append(long start, double open, double high, double low, double close, int ticks) {
+        int index = count;
+        if (index > 0 && Math.floorDiv(start - lastStart, intervalNanos) <= 0) {
+            throw new IllegalArgumentException("bars must be appended in time order");
+        }
+        Frames current = frames;
+        int frame = current.size() - 1;
+        long time = Math.floorDiv(start - current.baseTime[frame], intervalNanos);
+        long reference = current.reference[frame];
+        if (index == 0 || !fits(time, reference, open, high, low, close)) {
+            current = startFrame(current, index, start, ticks(open));
+            frame = current.size() - 1;
+            time = 0;
+            reference = current.reference[frame];
+            if (!fits(time, reference, open, high, low, close)) {
+                throw new IllegalArgumentException("bar too wide to encode: " + low + " .. " + high);
+            }
+        }
+        if (index == capacity) {
+            grow();
+        }
+        int position = index * 4;
+        column(CandleColumn.TIME).putInt(position, (int) time);
+        column(CandleColumn.OPEN).putInt(position, (int) (ticks(open) - reference));
+        column(CandleColumn.HIGH).putInt(position, (int) (ticks(high) - reference));
+        column(CandleColumn.LOW).putInt(position, (int) (ticks(low) - reference));
+        column(CandleColumn.CLOSE).putInt(position, (int) (ticks(close) - reference));
+        column(CandleColumn.TICKS).putInt(position, ticks);
+        meta.putLong(24, index + 1);
+        lastStart = start;
+        frames = current;
+        count = index + 1;
+    }
+
+    /** Bars whose start lies in [from, to). Only maps the columns the caller then asks for. */
+    Range range(long from, long to) {
+        int size = count;
+        Frames seen = frames; // read after count: covers every bar below size
+        if (size == 0) {
+            return new Range(seen, 0, 0);
+        }
+        return new Range(seen, lowerBound(seen, from, size), lowerBound(seen, to, size));
+    }
+
+    void flush() {
+        for (MappedByteBuffer column : columns) {
+            if (column != null) {
+                column.force();
+            }
+        }
+        if (extraFrames != null) {
+            extraFrames.force();
+        }
+        meta.force();
+    }
+
+    /** A contiguous run of bars [first, last); columns are zero-copy views of the mapped files. */
+    final class Range {
+
+        final int first;
+        final int last;
+        private final Frames frames;
+
+        private Range(Frames frames, int first, int last) {
+            this.frames = frames;
+            this.first = first;
+            this.last = last;
+        }
+
+        int size() {
+            return last - first;
+        }
+
+        /** Read-only view of the column's raw (encoded) values for this range; index 0 is bar first. */
+        IntBuffer column(CandleColumn column) {
+            MappedByteBuffer mapped = CandleSeries.this.column(column);
+            return mapped.asReadOnlyBuffer()
+                    .slice(first * 4, size() * 4).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        }
+
+        long time(IntBuffer times, int i) {
+            return barStart(frames, first + i, times.get(i));
+        }
+
+        double price(IntBuffer prices, int i) {
+            return (double) (frames.reference[frames.of(first + i)] + prices.get(i)) / CandleStore.PRICE_SCALE;
+        }
+    }
+
+    /**
+     Encoding frames, oldest first: frame f covers the bars from firstBar[f] up to the
+     next frame's first bar. Replaced, never changed, so readers can hold on to one.
+     */
+    private static final class Frames {
+
+        final int[] firstBar;
+        final long[] baseTime;
+        final long[] reference;
+
+        Frames(int[] firstBar, long[] baseTime, long[] reference) {
+            this.firstBar = firstBar;
+            this.baseTime = baseTime;
+            this.reference = reference;
+        }
+
+        int size() {
+            return firstBar.length;
+        }
+
+        /** The frame of bar index. */
+        int of(int index) {
+            int frame = firstBar.length - 1;
+            while (frame > 0 && firstBar[frame] > index) {
+                frame--;
+            }
+            return frame;
+        }
+
+        Frames plus(int first, long base, long ref) {
+            int n = firstBar.length;
+            Frames next = new Frames(Arrays.copyOf(firstBar, n + 1), Arrays.copyOf(baseTime, n + 1),
+                    Arrays.copyOf(reference, n + 1));
+            next.firstBar[n] = first;
+            next.baseTime[n] = base;
+            next.reference[n] = ref;
+            return next;
+        }
+    }
+
+    /** The first bar sets frame 0 (kept in series.meta); later frames go to frames.meta. */
+    private Frames startFrame(Frames current, int index, long base, long reference) {
+        if (index == 0) {
+            meta.putLong(8, base);
+            meta.putLong(16, reference);
+            return new Frames(new int[] {0}, new long[] {base}, new long[] {reference});
+        }
+        int extra = current.size() - 1;
+        long size = (long) (extra + 1) * FRAME_SIZE;
+        if (extraFrames == null || extraFrames.capacity() < size) {
+            extraFrames = map(directory.resolve(FRAMES), Math.max(size, (extraFrames == null ? 1 : 2L * extra) * FRAME_SIZE));
+        }
+        int position = extra * FRAME_SIZE;
+        extraFrames.putLong(position, index);
+        extraFrames.putLong(position + 8, base);
+        extraFrames.putLong(position + 16, reference);
+        meta.putLong(32, extra + 1);
+        return current.plus(index, base, reference);
+    }
+
+    private boolean fits(long time, long reference, double open, double high, double low, double close) {
+        return fitsInt(time) && fitsInt(ticks(open) - reference) && fitsInt(ticks(high) - reference)
+                && fitsInt(ticks(low) - reference) && fitsInt(ticks(close) - reference);
+    }
+
+    private static boolean fitsInt(long value) {
+        return value == (int) value;
+    }
+
+    private long barStart(Frames frames, int index, int time) {
+        return frames.baseTime[frames.of(index)] + time * intervalNanos;
+    }
+
+    /** First index whose bar starts at or after time. */
+    private int lowerBound(Frames frames, long time, int size) {
+        MappedByteBuffer times = column(CandleColumn.TIME);
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (barStart(frames, mid, times.getInt(mid * 4)) < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static long ticks(double price) {
+        return Math.round(price * CandleStore.PRICE_SCALE);
+    }
+
+    private synchronized MappedByteBuffer column(CandleColumn column) {
+        MappedByteBuffer mapped = columns[column.ordinal()];
+        if (mapped == null || mapped.capacity() < capacity * 4) {
+            mapped = map(directory.resolve(column.name().toLowerCase() + ".col"), capacity * 4L);
+            columns[column.ordinal()] = mapped;
+        }
+        return mapped;
+    }
+
+    private synchronized void grow() {
+        capacity *= 2;
+        for (CandleColumn column : COLUMNS) {
+            if (columns[column.ordinal()] != null) {
+                column(column);
+            }
+        }
+    }
+
+    private static MappedByteBuffer map(Path file, long size) {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, channel.size()));
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            return mapped;
+        } catch (IOException e) {
+            throw new UncheckedIOException("cannot map " + file, e);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package lld03_observer_pattern.stock_price_monitoring_system;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ On-disk home of closed OHLCV bars: one CandleSeries per symbol and interval,
+ stored under directory/<symbol>/<interval nanos>ns/ (nanos, so sub-second
+ intervals get a series each).
+
+ Series are opened once and cached, so the aggregator resolves a symbol's
+ series on its first closed bar and never touches the symbol string again.
+ */
+class CandleStore implements AutoCloseable {
+
+    /** Prices are stored as fixed-point ticks of 1 / PRICE_SCALE. */
+    static final long PRICE_SCALE = 10_000;
+
+    private final Path directory;
+    private final ConcurrentHashMap<String, CandleSeries> series = new ConcurrentHashMap<>();
+
+    CandleStore(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+    }
+
+    /** Opens (or creates) the series of symbol at interval. */
+    CandleSeries series(String symbol, Duration interval) {
+        String key = symbol + "/" + interval.toNanos() + "ns";
+        return series.computeIfAbsent(key, k -> {
+            try {
+                return new CandleSeries(directory.resolve(k), interval.toNanos());
+            } catch (IOException e) {
+                throw new UncheckedIOException("cannot open candle series " + k, e);
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        for (CandleSeries open : series.values()) {
+            open.flush();
+        }
+        series.clear();
+    }
+}
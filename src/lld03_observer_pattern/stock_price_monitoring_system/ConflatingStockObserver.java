@@ -0,0 +1,148 @@
+package lld03_observer_pattern.stock_price_monitoring_system;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ Conflating delivery mode for any StockObserver that only cares about the latest price.
+
+ On a tick it copies the price pair and timestamp into the symbol's primitive
+ slots under a per-symbol seqlock, marks the slot dirty (release stores, no
+ lock, no allocation) and returns. A flusher thread wakes up once per frame and
+ calls the wrapped observer once for every dirty symbol with a Stock of its own,
+ filled from a consistent read of those slots. The live Stock is never handed
+ over: its fields are plain and keep changing under the producer, so the
+ observer could see the current price of one tick and the previous of another.
+ Ticks in between are dropped.
+
+ One writer per symbol, like the rest of the stock observers.
+
+ The wrapped observer therefore runs at most symbols × frame rate times per
+ second, no matter how fast the feed is.
+ */
+class ConflatingStockObserver implements StockObserver, AutoCloseable {
+
+    private final StockObserver delegate;
+    private final AtomicReferenceArray<Stock> stocks;
+    private final long[] version;     // seqlock per symbol: odd while a tick is being copied in
+    private final double[] current;
+    private final double[] previous;
+    private final long[] timestamp;
+    private final Stock[] frames;     // the flusher's copies, handed to the delegate
+    private final AtomicIntegerArray dirty;
+    private final long frameNanos;
+    private final Thread flusher;
+
+    private volatile boolean closed;
+
+    ConflatingStockObserver(StockObserver delegate, int symbols, Duration frame) {
+        if (symbols <= 0 || frame.isNegative() || frame.isZero()) {
+            throw new IllegalArgumentException("need symbols > 0 and a positive frame");
+        }
+        this.delegate = delegate;
+        this.stocks = new AtomicReferenceArray<>(symbols);
+        this.version = new long[symbols];
+        this.current = new double[symbols];
+        this.previous = new double[symbols];
+        this.timestamp = new long[symbols];
+        this.frames = new Stock[symbols];
+        this.dirty = new AtomicIntegerArray(symbols);
+        this.frameNanos = frame.toNanos();
+        this.flusher = new Thread(this::run, "conflating-" + delegate.getClass().getSimpleName());
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    @Override
+    public void onStockUpdate(StockEventType stockEventType, Stock Stock) {
+        int id = Stock.getId();
+        if (stocks.getPlain(id) == null) {
+            stocks.setRelease(id, Stock);
+        }
+        long v = version[id];
+        VERSION.setOpaque(version, id, v + 1);
+        VarHandle.storeStoreFence();
+        current[id] = Stock.getCurrentPrice();
+        previous[id] = Stock.getPreviousPrice();
+        timestamp[id] = Stock.getTimestamp();
+        VERSION.setRelease(version, id, v + 2);
+        dirty.setRelease(id, 1);
+    }
+
+    /** Delivers every dirty symbol once; returns how many were delivered. */
+    int flush() {
+        int delivered = 0;
+        for (int id = 0; id < dirty.length(); id++) {
+            if (dirty.getPlain(id) != 0 && dirty.getAndSet(id, 0) != 0) {
+                delegate.onStockUpdate(StockEventType.PRICE_UPDATED, frame(id));
+                delivered++;
+            }
+        }
+        return delivered;
+    }
+
+    /** The symbol's latest tick, copied into the flusher's own Stock (allocated once per symbol). */
+    private Stock frame(int id) {
+        Stock frame = frames[id];
+        if (frame == null) {
+            frame = new Stock(id, stocks.getAcquire(id).getSymbol(), 0, 0);
+            frames[id] = frame;
+        }
+        while (true) {
+            long before = (long) VERSION.getAcquire(version, id);
+            double currentPrice = current[id];
+            double previousPrice = previous[id];
+            long time = timestamp[id];
+            VarHandle.loadLoadFence();
+            if ((before & 1) == 0 && before == (long) VERSION.getOpaque(version, id)) {
+                frame.currentPrice = currentPrice;
+                frame.previousPrice = previousPrice;
+                frame.timestamp = time;
+                return frame;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    private void run() {
+        long next = System.nanoTime();
+        while (!closed) {
+            next += frameNanos;
+            try {
+                flush();
+            } catch (RuntimeException e) {
+                // a failing frame must not stop the next ones
+                System.err.println("Conflated observer " + delegate.getClass().getSimpleName() + " failed: " + e);
+            }
+            long wait = next - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(this, wait);
+            } else {
+                next = System.nanoTime(); // fell behind: skip frames instead of bursting
+            }
+        }
+    }
+
+    /**
+     Stops the flusher after a last frame, so the final prices are always delivered.
+     An interrupted wait restores the flag and throws IllegalStateException.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while stopping the flusher", e);
+        }
+        flush();
+    }
+
+    private static final VarHandle VERSION = MethodHandles.arrayElementVarHandle(long[].class);
+}
@@ -0,0 +1,9 @@
+package lld03_observer_pattern.stock_price_monitoring_system;
+
+class DashboardService implements StockObserver{
+    @Override
+    public void onStockUpdate(StockEventType stockEventType, Stock Stock) {
+        //sending data to  dashboard service
+        System.out.println("Dashboard: " + Stock.getSymbol() + " " + Stock.getCurrentPrice());
+    }
+}
@@ -0,0 +1,64 @@
+package lld03_observer_pattern.stock_price_monitoring_system;
+
+import java.time.Duration;
+
+/**
+ Sharp-drop detector: tracks every symbol's peak over a sliding time window and
+ signals when the price falls more than a given percentage below it.
+
+ - The peak comes from a SlidingWindowExtremes max deque (fixed-capacity ring per
+   symbol), so a tick costs amortized O(1) and at most O(capacity) in the worst
+   case, with no allocation.
+ - A symbol signals once per drop: it re-arms only after the drawdown is back
+   under the threshold, so a crash does not fire on every tick on the way down.
+
+ One writer per symbol, like the rest of the stock observers.
+ */
+class DrawdownDetector {
+
+    /** Called on the ticking thread; keep it short or hand off. */
+    interface SignalHandler {
+        void onSharpDrop(int symbolId, double peak, double price, double drawdown, long timestamp);
+    }
+
+    private final SlidingWindowExtremes peaks;
+    private final double threshold;
+    private final boolean[] signalled;
+    private final SignalHandler handler;
+
+    /**
+     @param dropPercent drawdown from the window's peak that triggers a signal, e.g. 5 for 5%
+     @param capacity    ring size per symbol: at least the ticks one window can hold (see SlidingWindowExtremes)
+     */
+    DrawdownDetector(int symbols, Duration window, int capacity, double dropPercent, SignalHandler handler) {
+        if (!(dropPercent > 0 && dropPercent < 100)) {
+            throw new IllegalArgumentException("drop percent must be in (0, 100): " + dropPercent);
+        }
+        this.peaks = SlidingWindowExtremes.max(symbols, window.toNanos(), capacity);
+        this.threshold = dropPercent / 100;
+        this.signalled = new boolean[symbols];
+        this.handler = handler;
+    }
+
+    /** Returns true if this tick fired a signal. */
+    boolean onTick(int symbolId, double price, long timestamp) {
+        peaks.push(symbolId, timestamp, price);
+        double peak = peaks.extreme(symbolId);
+        double drawdown = peak > 0 ? (peak - price) / peak : 0;
+        if (drawdown < threshold) {
+            signalled[symbolId] = false;
+            return false;
+        }
+        if (signalled[symbolId]) {
+            return false;
+        }
+        signalled[symbolId] = true;
+        handler.onSharpDrop(symbolId, peak, price, drawdown, timestamp);
+        return true;
+    }
+
+    /** Peak of the symbol's current window, NaN before its first tick. */
+    double peak(int symbolId) {
+        return peaks.extreme(symbolId);
+    }
+}
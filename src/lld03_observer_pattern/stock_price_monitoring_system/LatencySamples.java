@@ -0,0 +1,42 @@
+package lld03_observer_pattern.stock_price_monitoring_system;
+
+import java.util.Arrays;
+
+/**
+ Fixed-capacity latency recorder for the stock benchmarks: record() is one array
+ store (samples past the capacity are counted but not kept), percentiles are
+ computed by sorting a copy afterwards.
+ */
+class LatencySamples {
+
+    private final long[] samples;
+    private int kept;
+    private long recorded;
+
+    LatencySamples(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    void record(long nanos) {
+        if (kept < samples.length) {
+            samples[kept++] = nanos;
+        }
+        recorded++;
+    }
+
+    long recorded() {
+        return recorded;
+    }
+
+    /** e.g. "tick->signal ns: p50=240 p99=650 p99.9=1100 p99.99=11000 max=28000 (23,050 samples)" */
+    String summary(String label) {
+        if (kept == 0) {
+            return label + ": no samples";
+        }
+        long[] sorted = Arrays.copyOf(samples, kept);
+        Arrays.sort(sorted);
+        return String.format("%s ns: p50=%d p99=%d p99.9=%d p99.99=%d max=%d (%,d samples)", label,
+                sorted[kept / 2], sorted[(int) (kept * 0.99)], sorted[(int) (kept * 0.999)],
+                sorted[(int) (kept * 0.9999)], sorted[kept - 1], kept);
+    }
+}
@@ -1,7 +1,6 @@
 package lld03_observer_pattern.stock_price_monitoring_system;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.time.Duration;
 
 /*
 TASK 2: Observer Pattern (Event-only Pull)
@@ -93,7 +92,6 @@ Data is pulled, not pushed."
 
 */
 
-
 // ========================================Solution=================================
 /**
   - staic data : symbol, currentPrice, PreviousPrice (These are the pure data)
@@ -106,131 +104,36 @@ Data is pulled, not pushed."
 but must not shape or tailor data for any specific observer.
    */
 
-
-enum StockEventType {
-  PRICE_UPDATED
-}
-
-interface StockObserver {
-    void onStockUpdate(StockEventType stockEventType, Stock Stock);
-}
-
-interface StockSubject {
-    void addObserver(StockObserver stockObserver);
-    void removeObserver(StockObserver stockObserver);
-}
-
-class Stock implements StockSubject{
-
-    String symbol;      // e.g. "AAPL", "TSLA"
-    double currentPrice;
-    double previousPrice;
-
-    private List<StockObserver> observers = new ArrayList<>();
-
-    
-
-    public Stock(String symbol, double currentPrice, double previousPrice) {
-        this.symbol = symbol;
-        this.currentPrice = currentPrice;
-        this.previousPrice = previousPrice;
-    }
-
-    @Override
-    public void addObserver(StockObserver stockObserver) {
-                
-    }
-
-    @Override
-    public void removeObserver(StockObserver stockObserver) {
-        
-    }
-
-    void notifyObserver(StockEventType stockEventType) {
-        for(StockObserver stockObserver : observers) {
-            stockObserver.onStockUpdate(stockEventType, this);
-        }
-    }
-
-    public String getSymbol() {
-        return symbol;
-    }
-
-    public void setSymbol(String symbol) {
-        this.symbol = symbol;
-    }
-
-    public double getCurrentPrice() {
-        return currentPrice;
-    }
-
-    public void setCurrentPrice(double currentPrice) {
-        this.currentPrice = currentPrice;
-    }
-
-    public double getPreviousPrice() {
-        return previousPrice;
-    }
-
-    public void setPreviousPrice(double previousPrice) {
-        this.previousPrice = previousPrice;
-    }
-
-    public void updatePrice(double price) {
-        this.previousPrice = this.currentPrice;
-        this.currentPrice = price;
-        notifyObserver(StockEventType.PRICE_UPDATED);
-    }
-}
-
-class AlertService implements StockObserver{
-    @Override
-    public void onStockUpdate(StockEventType stockEventType, Stock Stock) {
-        if(stockEventType == StockEventType.PRICE_UPDATED) {
-            double currentPrice = Stock.getCurrentPrice();
-            if(currentPrice > 1000) {
-                System.out.println("Stock price crosseed the threshold");
+public class Main {
+    public static void main(String[] args) throws InterruptedException {
+        // symbols get their dense id once, at listing time
+        StockRepository stocks = new StockRepository(16);
+        Stock Stock = stocks.list("HEM", 10);
+        AlertService alerts = new AlertService(1);
+        alerts.addRule(Stock.getId(), AlertDirection.ABOVE, 1000);
+        alerts.addRule(Stock.getId(), AlertDirection.BELOW, 50);
+        Stock.addObserver(alerts);
+        StreamingAnalytics analytics =
+                new StreamingAnalytics(1, new int[] {10, 50}, new Duration[] {Duration.ofSeconds(1)}, 1024);
+        Stock.addObserver(new AnalyticsService(analytics));
+        Stock.addObserver(new TradingService(new DrawdownDetector(1, Duration.ofSeconds(1), 1024, 5,
+                (id, peak, price, drawdown, ts) -> System.out.printf(
+                        "Trading signal: %s dropped %.1f%% from %.1f to %.1f%n",
+                        Stock.getSymbol(), drawdown * 100, peak, price))));
+
+        // the UI only needs the latest price: bursts are coalesced and drawn at 30 frames/s
+        try (ConflatingStockObserver dashboard =
+                     new ConflatingStockObserver(new DashboardService(), 1, Duration.ofMillis(33))) {
+            Stock.addObserver(dashboard);
+            for (int tick = 0; tick < 1000; tick++) {
+                Stock.updatePrice(20 + tick % 100);
             }
+            Stock.updatePrice(1020);
+            Thread.sleep(50);
         }
-    }
-}
-
-class AnalyticsService implements StockObserver{
-    @Override
-    public void onStockUpdate(StockEventType stockEventType, Stock Stock) {
-        //sending event to logger service
-            double previousPrice = Stock.getPreviousPrice();
-            double currentPrice = Stock.getCurrentPrice();
-           // double diff = Math.abs(currentPrice - previousPrice);
-            if(currentPrice < previousPrice) {
-                //send event price decrease 
-            } else if(currentPrice > previousPrice) {
-                //send event as price increased
-            }
-    }
-}
 
-class TradingService implements StockObserver {
-   @Override
-   public void onStockUpdate(StockEventType stockEventType, Stock Stock) {
-       // do something
-   }
-}
-
-class DashboardService implements StockObserver{
-    @Override
-    public void onStockUpdate(StockEventType stockEventType, Stock Stock) {
-        //sending data to  dashboard service
-    }
-}
-
-public class Main {
-    public static void main(String[] args) {
-        Stock Stock = new Stock("HEM", 10, 5);
-        Stock.addObserver(new AlertService());
-        Stock.addObserver(new AnalyticsService());
-        Stock.addObserver(new TradingService());
-        Stock.addObserver(new DashboardService());
-        Stock.updatePrice(20);
+        StreamingAnalytics.Snapshot stats = analytics.newSnapshot();
+        analytics.read(Stock.getId(), stats);
+        System.out.println("Analytics: " + Stock.getSymbol() + " " + stats);
     }
 }
@@ -0,0 +1,105 @@
+package lld03_observer_pattern.stock_price_monitoring_system;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ Throughput of PartitionedStockDispatcher against calling the observers on the
+ feed thread, for 1, 2, 4, ... shards up to the number of cores (or maxShards).
+
+ 10k symbols, each with streaming analytics and the drawdown detector as
+ observers. Producers own disjoint symbol sets (id % producers), so per-symbol
+ order holds; one producer uses SPSC rings, several use MPSC rings. A run ends
+ when every tick has been delivered.
+
+ Run: java lld03_observer_pattern.stock_price_monitoring_system.PartitionedDispatchBenchmark [producers] [maxShards] [ticks]
+ */
+public class PartitionedDispatchBenchmark {
+
+    private static final int SYMBOLS = 10_000;
+    private static final int FEED = 1 << 18;
+
+    public static void main(String[] args) throws InterruptedException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        int producers = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        int maxShards = args.length > 1 ? Integer.parseInt(args[1]) : Math.max(2, cores);
+        long ticks = args.length > 2 ? Long.parseLong(args[2]) : 20_000_000L;
+        System.out.printf("%d core(s), %d producer(s), %,d ticks%n", cores, producers, ticks);
+
+        int[][] ids = new int[producers][FEED];
+        double[][] prices = new double[producers][FEED];
+        Random random = new Random(42);
+        for (int p = 0; p < producers; p++) {
+            for (int i = 0; i < FEED; i++) {
+                ids[p][i] = random.nextInt(SYMBOLS / producers) * producers + p;
+                prices[p][i] = 100 + random.nextGaussian();
+            }
+        }
+
+        for (int round = 1; round <= 2; round++) {
+            StockRepository serial = wire();
+            long start = System.nanoTime();
+            for (long i = 0; i < ticks; i++) {
+                int slot = (int) (i & (FEED - 1));
+                int p = (int) (i % producers);
+                serial.onTick(ids[p][slot], prices[p][slot], i);
+            }
+            report(round, "on feed thread", ticks, System.nanoTime() - start);
+
+            for (int shards = 1; shards <= maxShards; shards *= 2) {
+                StockRepository stocks = wire();
+                PartitionedStockDispatcher dispatcher =
+                        new PartitionedStockDispatcher(stocks, shards, 1 << 14, producers == 1);
+                long perProducer = ticks / producers;
+                CountDownLatch go = new CountDownLatch(1);
+                Thread[] feeds = new Thread[producers];
+                for (int p = 0; p < producers; p++) {
+                    int[] feedIds = ids[p];
+                    double[] feedPrices = prices[p];
+                    feeds[p] = new Thread(() -> {
+                        await(go);
+                        for (long i = 0; i < perProducer; i++) {
+                            int slot = (int) (i & (FEED - 1));
+                            dispatcher.publish(feedIds[slot], feedPrices[slot], i);
+                        }
+                    });
+                    feeds[p].start();
+                }
+                start = System.nanoTime();
+                go.countDown();
+                for (Thread feed : feeds) {
+                    feed.join();
+                }
+                dispatcher.close();
+                report(round, shards + " shard(s)", perProducer * producers, System.nanoTime() - start);
+            }
+        }
+    }
+
+    private static StockRepository wire() {
+        StockRepository stocks = new StockRepository(SYMBOLS);
+        AnalyticsService analytics = new AnalyticsService(new StreamingAnalytics(SYMBOLS,
+                new int[] {10, 50}, new Duration[] {Duration.ofSeconds(1)}, 32));
+        TradingService trading = new TradingService(new DrawdownDetector(SYMBOLS, Duration.ofSeconds(1), 32, 5,
+                (id, peak, price, drawdown, timestamp) -> { }));
+        for (int id = 0; id < SYMBOLS; id++) {
+            Stock stock = stocks.list("S" + id, 100);
+            stock.addObserver(analytics);
+            stock.addObserver(trading);
+        }
+        return stocks;
+    }
+
+    private static void report(int round, String label, long ticks, long nanos) {
+        System.out.printf("round %d, %-16s %,.0f ticks/s%n", round, label + ":", ticks * 1e9 / nanos);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package lld03_observer_pattern.stock_price_monitoring_system;
+
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ Partitioned execution mode for stock observers.
+
+ Instead of running every observer on the thread that received the tick,
+ publish() hands the tick to the shard that owns the symbol through that
+ shard's TickRing. Shards own contiguous id ranges, split like StockBook's
+ over the symbols listed when the dispatcher is built (ids listed later go to
+ the last shard): observers keep per-id primitive arrays, and with id % shards
+ every cache line of them would be written by every shard thread. Each shard has one dedicated worker thread that
+ calls StockRepository.onTick, so:
+   - a symbol's Stock and its observers' per-symbol state are only ever touched
+     by one thread: no locks, and the single-writer rule of StreamingAnalytics,
+     DrawdownDetector etc. holds;
+   - ticks of one symbol are delivered in publish order (per producer);
+   - shards share nothing on the tick path, so throughput grows with shards as
+     long as there is a free core for each worker.
+
+ Workers spin briefly, then yield, then park for IDLE_PARK_NANOS when their ring
+ is empty, so an idle shard costs little CPU and a tick waits at most that long.
+ The JDK cannot pin threads to cores; pin the process (taskset, numactl) if needed.
+ */
+class PartitionedStockDispatcher implements AutoCloseable {
+
+    private static final int BATCH = 256;
+    private static final int SPINS = 100;
+    private static final int YIELDS = 100;
+    private static final long IDLE_PARK_NANOS = 50_000;
+
+    private final StockRepository stocks;
+    private final int symbols;
+    private final TickRing[] rings;
+    private final Thread[] workers;
+    private final AtomicLong failures = new AtomicLong();
+
+    private volatile boolean closed;
+
+    /**
+     @param singleProducer true if only one thread ever calls publish (SPSC rings), false for MPSC
+     */
+    PartitionedStockDispatcher(StockRepository stocks, int shards, int ringCapacity, boolean singleProducer) {
+        if (shards <= 0) {
+            throw new IllegalArgumentException("shards must be positive: " + shards);
+        }
+        this.stocks = stocks;
+        this.symbols = Math.max(1, stocks.size());
+        this.rings = new TickRing[shards];
+        this.workers = new Thread[shards];
+        for (int shard = 0; shard < shards; shard++) {
+            TickRing ring = new TickRing(ringCapacity, singleProducer);
+            rings[shard] = ring;
+            workers[shard] = new Thread(() -> run(ring), "stock-shard-" + shard);
+            workers[shard].setDaemon(true);
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+    }
+
+    int shards() {
+        return rings.length;
+    }
+
+    /** Same split as StockBook.shardOf: shard s owns ids [s * symbols / shards, (s + 1) * symbols / shards). */
+    int shardOf(int symbolId) {
+        if (symbolId >= symbols) {
+            return rings.length - 1;
+        }
+        return (int) (((symbolId + 1L) * rings.length - 1) / symbols);
+    }
+
+    /** Hands the tick to its shard, spinning while the shard's ring is full (backpressure). */
+    void publish(int symbolId, double price, long timestamp) {
+        checkOpen();
+        int shard = shardOf(symbolId);
+        TickRing ring = rings[shard];
+        int attempts = 0;
+        while (!ring.offer(symbolId, price, timestamp)) {
+            checkOpen();
+            if (++attempts < SPINS) {
+                Thread.onSpinWait();
+            } else {
+                Thread.yield();
+            }
+        }
+        afterOffer(shard);
+    }
+
+    /** Returns false instead of waiting if the shard's ring is full. */
+    boolean tryPublish(int symbolId, double price, long timestamp) {
+        checkOpen();
+        int shard = shardOf(symbolId);
+        if (!rings[shard].offer(symbolId, price, timestamp)) {
+            return false;
+        }
+        afterOffer(shard);
+        return true;
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("dispatcher is closed");
+        }
+    }
+
+    /**
+     A publish that passed checkOpen() just before close() can land after its
+     worker's last drain. It then waits for the worker to stop and delivers what
+     is left in the ring itself, so the tick is late but not lost.
+
+     The offer is a release store and closed a volatile load, which may still be
+     reordered (store-load); the full fence keeps the offer visible before closed
+     is read, so either this thread sees closed or the worker's last drain sees
+     the tick. The worker fences the other way round (see run()).
+     */
+    private void afterOffer(int shard) {
+        VarHandle.fullFence();
+        if (!closed) {
+            return; // the worker drains once more after it sees closed, so it will get this tick
+        }
+        try {
+            workers[shard].join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while delivering a tick that raced close()", e);
+        }
+        TickRing ring = rings[shard];
+        synchronized (ring) { // the worker is gone; publishers that raced close() take turns as consumer
+            while (drain(ring, stocks::onTick) != 0) {
+                // until empty
+            }
+        }
+    }
+
+    /** Ticks whose observers threw; the worker logs them and carries on. */
+    long failures() {
+        return failures.get();
+    }
+
+    private void run(TickRing ring) {
+        TickRing.TickHandler deliver = stocks::onTick;
+        int idle = 0;
+        boolean closing = false;
+        while (true) {
+            int drained = drain(ring, deliver);
+            if (drained != 0) {
+                idle = 0;
+            } else if (closing) {
+                return; // empty on a drain that started after closed was seen: nothing can land any more
+            } else if (closed) {
+                closing = true; // drain once more: a publish may have landed after the drain above
+                VarHandle.fullFence(); // pairs with afterOffer's fence: closed is read before that drain
+            } else if (++idle < SPINS) {
+                Thread.onSpinWait();
+            } else if (idle < SPINS + YIELDS) {
+                Thread.yield();
+            } else {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    /** One batch; -1 if an observer threw (the failing tick is consumed, the shard carries on). */
+    private int drain(TickRing ring, TickRing.TickHandler deliver) {
+        try {
+            return ring.drain(deliver, BATCH);
+        } catch (RuntimeException e) {
+            failures.incrementAndGet();
+            System.err.println(Thread.currentThread().getName() + ": observer failed: " + e);
+            return -1;
+        }
+    }
+
+    /**
+     Lets every worker deliver what is already queued, then stops them. An
+     interrupted wait restores the flag and throws IllegalStateException; the
+     workers still drain their rings on their own.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Thread worker : workers) {
+            LockSupport.unpark(worker);
+        }
+        try {
+            for (Thread worker : workers) {
+                worker.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for the shards to drain", e);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package lld03_observer_pattern.stock_price_monitoring_system;
+
+/**
+ Rolling max (or min) over a time window for every symbol, as a monotonic deque
+ kept in a ring buffer of primitive arrays per symbol.
+
+ - push drops samples that fell out of the window from the front and samples the new
+   value dominates from the back, so the front is always the window's extreme:
+   amortized O(1) per tick, no allocation.
+ - Every symbol has a fixed ring of capacity slots. The deque never holds more
+   samples than the window has ticks, so a capacity of window x peak tick rate
+   per symbol is never exceeded. If it is anyway, the front (the window's true
+   extreme) stays and the new sample takes the back slot: the sample it replaces
+   could only have become the extreme after everything before it expired. Such
+   overflows are counted (overflows()); they mean the capacity is too small.
+
+ One writer per symbol; see StreamingAnalytics for how readers get a consistent view.
+ */
+class SlidingWindowExtremes {
+
+    /** One symbol's ring. */
+    private static final class Ring {
+        final long[] times;
+        final double[] values;
+
+        Ring(int capacity) {
+            times = new long[capacity];
+            values = new double[capacity];
+        }
+    }
+
+    private final boolean max;
+    private final long windowNanos;
+    private final Ring[] rings;
+    private final int[] head;
+    private final int[] size;
+    private long overflows;
+
+    /** capacity is at least 2, so the back slot an overflow takes is never the front. */
+    SlidingWindowExtremes(int symbols, long windowNanos, int capacity, boolean max) {
+        if (windowNanos <= 0 || capacity < 2) {
+            throw new IllegalArgumentException("window must be positive and capacity at least 2");
+        }
+        this.max = max;
+        this.windowNanos = windowNanos;
+        this.rings = new Ring[symbols];
+        for (int symbol = 0; symbol < symbols; symbol++) {
+            rings[symbol] = new Ring(capacity);
+        }
+        this.head = new int[symbols];
+        this.size = new int[symbols];
+    }
+
+    static SlidingWindowExtremes max(int symbols, long windowNanos, int capacity) {
+        return new SlidingWindowExtremes(symbols, windowNanos, capacity, true);
+    }
+
+    static SlidingWindowExtremes min(int symbols, long windowNanos, int capacity) {
+        return new SlidingWindowExtremes(symbols, windowNanos, capacity, false);
+    }
+
+    long windowNanos() {
+        return windowNanos;
+    }
+
+    void push(int symbol, long timestamp, double value) {
+        Ring ring = rings[symbol];
+        int capacity = ring.times.length;
+        int h = head[symbol];
+        int n = size[symbol];
+        // expired samples leave from the front
+        while (n > 0 && timestamp - ring.times[h] >= windowNanos) {
+            h = (h + 1) % capacity;
+            n--;
+        }
+        // samples the new value dominates can never be the extreme again
+        while (n > 0 && !beats(ring.values[(h + n - 1) % capacity], value)) {
+            n--;
+        }
+        if (n == capacity) {
+            n--; // full of samples that all beat the new one: it replaces the least of them
+            overflows++;
+        }
+        int tail = (h + n) % capacity;
+        ring.times[tail] = timestamp;
+        ring.values[tail] = value;
+        head[symbol] = h;
+        size[symbol] = n + 1;
+    }
+
+    /** Extreme of the samples in the window as of the last push, NaN before the first one. */
+    double extreme(int symbol) {
+        return size[symbol] == 0 ? Double.NaN : rings[symbol].values[head[symbol]];
+    }
+
+    /**
+     Extreme as of time now: also skips samples that expired since the last push, so
+     a symbol that stopped ticking ages out. NaN if the whole window is empty.
+     */
+    double extreme(int symbol, long now) {
+        Ring ring = rings[symbol];
+        int capacity = ring.times.length;
+        int h = head[symbol];
+        int n = size[symbol];
+        for (int i = 0; i < n; i++) {
+            int slot = (h + i) % capacity;
+            if (now - ring.times[slot] < windowNanos) {
+                return ring.values[slot];
+            }
+        }
+        return Double.NaN;
+    }
+
+    /** Pushes that found a symbol's ring full (see the class comment); written by the tick writers, approximate. */
+    long overflows() {
+        return overflows;
+    }
+
+    private boolean beats(double kept, double incoming) {
+        return max ? kept > incoming : kept < incoming;
+    }
+}
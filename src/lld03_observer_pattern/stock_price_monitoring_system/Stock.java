@@ -0,0 +1,96 @@
+package lld03_observer_pattern.stock_price_monitoring_system;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class Stock implements StockSubject{
+
+    final int id;       // dense symbol id (0, 1, 2, ...), indexes per-symbol arrays in observers
+    String symbol;      // e.g. "AAPL", "TSLA"
+    double currentPrice;
+    double previousPrice;
+    long timestamp;     // epoch nanos of the last tick (see epochNanos())
+
+    // System.nanoTime() moved onto the epoch once per JVM
+    private static final long EPOCH_OFFSET = System.currentTimeMillis() * 1_000_000 - System.nanoTime();
+
+    private List<StockObserver> observers = new ArrayList<>();
+
+    
+
+    public Stock(int id, String symbol, double currentPrice, double previousPrice) {
+        this.id = id;
+        this.symbol = symbol;
+        this.currentPrice = currentPrice;
+        this.previousPrice = previousPrice;
+    }
+
+    @Override
+    public void addObserver(StockObserver stockObserver) {
+        observers.add(stockObserver);
+    }
+
+    @Override
+    public void removeObserver(StockObserver stockObserver) {
+        observers.remove(stockObserver);
+    }
+
+    void notifyObserver(StockEventType stockEventType) {
+        for(StockObserver stockObserver : observers) {
+            stockObserver.onStockUpdate(stockEventType, this);
+        }
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public void setSymbol(String symbol) {
+        this.symbol = symbol;
+    }
+
+    public double getCurrentPrice() {
+        return currentPrice;
+    }
+
+    public void setCurrentPrice(double currentPrice) {
+        this.currentPrice = currentPrice;
+    }
+
+    public double getPreviousPrice() {
+        return previousPrice;
+    }
+
+    public void setPreviousPrice(double previousPrice) {
+        this.previousPrice = previousPrice;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void updatePrice(double price) {
+        updatePrice(price, epochNanos());
+    }
+
+    /**
+     Now in nanoseconds since the epoch: as cheap and monotonic as System.nanoTime(),
+     but anchored to the wall clock (to the millisecond, at JVM start), so time-aligned
+     state such as CandleAggregator's bars means the same thing across restarts.
+     */
+    static long epochNanos() {
+        return EPOCH_OFFSET + System.nanoTime();
+    }
+
+    /** For feeds that carry their own tick time (epoch nanos, like epochNanos()). */
+    public void updatePrice(double price, long timestamp) {
+        this.previousPrice = this.currentPrice;
+        this.currentPrice = price;
+        this.timestamp = timestamp;
+        notifyObserver(StockEventType.PRICE_UPDATED);
+    }
+}
@@ -0,0 +1,132 @@
+package lld03_observer_pattern.stock_price_monitoring_system;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ Price book for thousands of symbols, stored struct-of-arrays:
+   current[id], previous[id], seq[id]   (id = dense symbol id, 0..symbols-1)
+
+ - No object per symbol and no allocation per tick: a tick is two double stores.
+ - Symbols are split into contiguous shards whose sizes differ by at most one,
+   so no shard is empty as long as shards <= symbols. Each shard has exactly one writer
+   thread (claimed through writer(shard)), so updates need no lock and no CAS,
+   and writers of different shards never touch the same cache lines except at
+   shard boundaries.
+ - seq[id] is a per-symbol seqlock: odd while a tick is being written, +2 per
+   tick. Readers on any thread get a consistent (current, previous) pair without
+   blocking the writer; seq / 2 is the number of ticks seen for the symbol.
+ */
+class StockBook {
+
+    private final double[] current;
+    private final double[] previous;
+    private final long[] seq;
+    private final int shards;
+    private final AtomicIntegerArray claimed;
+
+    StockBook(int symbols, int shards) {
+        if (symbols <= 0 || shards <= 0 || shards > symbols) {
+            throw new IllegalArgumentException("need 0 < shards <= symbols, got " + shards + " / " + symbols);
+        }
+        this.current = new double[symbols];
+        this.previous = new double[symbols];
+        this.seq = new long[symbols];
+        this.shards = shards;
+        this.claimed = new AtomicIntegerArray(shards);
+    }
+
+    int symbols() {
+        return current.length;
+    }
+
+    int shards() {
+        return shards;
+    }
+
+    int shardOf(int symbolId) {
+        // inverse of firstOf: the shard s with firstOf(s) <= symbolId < firstOf(s + 1)
+        return (int) (((symbolId + 1L) * shards - 1) / current.length);
+    }
+
+    /** First symbol id of shard; firstOf(shards()) is symbols(). */
+    int firstOf(int shard) {
+        return (int) ((long) shard * current.length / shards);
+    }
+
+    /**
+     The single writer of a shard. Hand it to exactly one thread; claiming the
+     same shard twice fails, which keeps the single-writer rule honest.
+     */
+    ShardWriter writer(int shard) {
+        if (!claimed.compareAndSet(shard, 0, 1)) {
+            throw new IllegalStateException("shard " + shard + " already has a writer");
+        }
+        return new ShardWriter(shard);
+    }
+
+    double currentPrice(int symbolId) {
+        while (true) {
+            long version = (long) SEQ.getAcquire(seq, symbolId);
+            double price = current[symbolId];
+            VarHandle.loadLoadFence();
+            if ((version & 1) == 0 && version == (long) SEQ.getOpaque(seq, symbolId)) {
+                return price;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /** Copies a consistent (current, previous) pair of the symbol into out[0], out[1]. */
+    void read(int symbolId, double[] out) {
+        while (true) {
+            long version = (long) SEQ.getAcquire(seq, symbolId);
+            double currentPrice = current[symbolId];
+            double previousPrice = previous[symbolId];
+            VarHandle.loadLoadFence();
+            if ((version & 1) == 0 && version == (long) SEQ.getOpaque(seq, symbolId)) {
+                out[0] = currentPrice;
+                out[1] = previousPrice;
+                return;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    long ticks(int symbolId) {
+        return (long) SEQ.getAcquire(seq, symbolId) >>> 1;
+    }
+
+    final class ShardWriter {
+
+        private final int shard;
+        private final int from;
+        private final int to;
+
+        private ShardWriter(int shard) {
+            this.shard = shard;
+            this.from = firstOf(shard);
+            this.to = firstOf(shard + 1);
+        }
+
+        int shard() {
+            return shard;
+        }
+
+        /** Same rule as Stock.updatePrice: the old current price becomes the previous one. */
+        void update(int symbolId, double price) {
+            if (symbolId < from || symbolId >= to) {
+                throw new IllegalArgumentException("symbol " + symbolId + " is not in shard " + shard);
+            }
+            long s = seq[symbolId];
+            SEQ.setOpaque(seq, symbolId, s + 1);
+            VarHandle.storeStoreFence();
+            previous[symbolId] = current[symbolId];
+            current[symbolId] = price;
+            SEQ.setRelease(seq, symbolId, s + 2);
+        }
+    }
+
+    private static final VarHandle SEQ = MethodHandles.arrayElementVarHandle(long[].class);
+}
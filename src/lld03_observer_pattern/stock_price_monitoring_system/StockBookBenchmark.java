@@ -0,0 +1,71 @@
+package lld03_observer_pattern.stock_price_monitoring_system;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ Tick ingestion throughput of StockBook: one writer thread per shard, 10k symbols,
+ ticks for random symbols of the shard replayed from preallocated arrays.
+
+ Run: java lld03_observer_pattern.stock_price_monitoring_system.StockBookBenchmark [threads] [ticksPerThread]
+ */
+public class StockBookBenchmark {
+
+    private static final int SYMBOLS = 10_000;
+    private static final int FEED = 1 << 16;
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        long ticksPerThread = args.length > 1 ? Long.parseLong(args[1]) : 200_000_000L;
+
+        for (int round = 1; round <= 3; round++) {
+            StockBook book = new StockBook(SYMBOLS, threads);
+            CountDownLatch ready = new CountDownLatch(threads);
+            CountDownLatch go = new CountDownLatch(1);
+            Thread[] writers = new Thread[threads];
+            for (int shard = 0; shard < threads; shard++) {
+                StockBook.ShardWriter writer = book.writer(shard);
+                int[] ids = new int[FEED];
+                double[] prices = new double[FEED];
+                fillFeed(book, shard, ids, prices);
+                writers[shard] = new Thread(() -> {
+                    ready.countDown();
+                    await(go);
+                    for (long i = 0; i < ticksPerThread; i++) {
+                        int slot = (int) (i & (FEED - 1));
+                        writer.update(ids[slot], prices[slot]);
+                    }
+                });
+                writers[shard].start();
+            }
+            ready.await();
+            long start = System.nanoTime();
+            go.countDown();
+            for (Thread writer : writers) {
+                writer.join();
+            }
+            long nanos = System.nanoTime() - start;
+            long ticks = ticksPerThread * threads;
+            System.out.printf("round %d: %d writer(s), %,d ticks in %d ms -> %,.0f ticks/s%n",
+                    round, threads, ticks, nanos / 1_000_000, ticks * 1e9 / nanos);
+        }
+    }
+
+    private static void fillFeed(StockBook book, int shard, int[] ids, double[] prices) {
+        Random random = new Random(shard);
+        int from = book.firstOf(shard);
+        int to = book.firstOf(shard + 1); // never empty: StockBook needs shards <= symbols
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = from + random.nextInt(to - from);
+            prices[i] = 100 + random.nextGaussian();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,5 @@
+package lld03_observer_pattern.stock_price_monitoring_system;
+
+enum StockEventType {
+  PRICE_UPDATED
+}
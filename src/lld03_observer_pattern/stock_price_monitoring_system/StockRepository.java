@@ -0,0 +1,78 @@
+package lld03_observer_pattern.stock_price_monitoring_system;
+
+import java.util.Arrays;
+
+/**
+ All listed stocks, addressed by dense symbol id.
+
+ - list() runs at instrument-load time: it interns the symbol in the
+   SymbolDictionary and creates the Stock under that id.
+ - Observers subscribe by id (or by symbol, resolved once right there).
+ - onTick(id, price, timestamp) is the feed entry point: an array index and
+   Stock.updatePrice, no String is hashed or compared per tick.
+
+ Listing and subscribing are expected before or between ticks of the symbol,
+ like Stock's own add/removeObserver.
+ */
+class StockRepository {
+
+    private final SymbolDictionary symbols;
+    private volatile Stock[] stocks;
+
+    StockRepository(int expectedSymbols) {
+        this.symbols = new SymbolDictionary(expectedSymbols);
+        this.stocks = new Stock[Math.max(16, expectedSymbols)];
+    }
+
+    /** Lists the symbol (idempotent) and returns its Stock. */
+    synchronized Stock list(String symbol, double price) {
+        int id = symbols.intern(symbol);
+        Stock[] current = stocks;
+        if (id >= current.length) {
+            current = Arrays.copyOf(current, Math.max(current.length * 2, id + 1));
+        }
+        if (current[id] == null) {
+            current[id] = new Stock(id, symbol, price, price);
+        }
+        stocks = current;
+        return current[id];
+    }
+
+    SymbolDictionary symbols() {
+        return symbols;
+    }
+
+    int size() {
+        return symbols.size();
+    }
+
+    Stock stock(int id) {
+        Stock stock = id < stocks.length ? stocks[id] : null;
+        if (stock == null) {
+            throw new IllegalArgumentException("unknown symbol id: " + id);
+        }
+        return stock;
+    }
+
+    void subscribe(int id, StockObserver observer) {
+        stock(id).addObserver(observer);
+    }
+
+    /** Resolves the symbol once; keep the returned id for unsubscribe. */
+    int subscribe(String symbol, StockObserver observer) {
+        int id = symbols.id(symbol);
+        if (id < 0) {
+            throw new IllegalArgumentException("symbol not listed: " + symbol);
+        }
+        subscribe(id, observer);
+        return id;
+    }
+
+    void unsubscribe(int id, StockObserver observer) {
+        stock(id).removeObserver(observer);
+    }
+
+    void onTick(int id, double price, long timestamp) {
+        stocks[id].updatePrice(price, timestamp);
+    }
+}
@@ -0,0 +1,6 @@
+package lld03_observer_pattern.stock_price_monitoring_system;
+
+interface StockSubject {
+    void addObserver(StockObserver stockObserver);
+    void removeObserver(StockObserver stockObserver);
+}
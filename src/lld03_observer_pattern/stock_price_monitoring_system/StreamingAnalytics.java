@@ -0,0 +1,143 @@
+package lld03_observer_pattern.stock_price_monitoring_system;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ Incremental per-symbol aggregates, O(1) per tick, all state in primitive arrays:
+   - tick count
+   - mean and variance (Welford's online update)
+   - one EMA per configured span N (alpha = 2 / (N + 1))
+   - rolling min and max per configured time window (SlidingWindowExtremes), as of
+     the reader's time: a symbol that stopped ticking ages out of its windows
+
+ Writes follow the feed: one writer thread per symbol. Each symbol has its own
+ seqlock counter, so read(symbol, snapshot) from any thread is lock-free: it
+ copies the aggregates and retries only if a tick landed in between.
+ */
+class StreamingAnalytics {
+
+    private final int[] spans;
+    private final double[] alphas;
+    private final long[] version;
+    private final long[] count;
+    private final double[] mean;
+    private final double[] m2;
+    private final double[] ema;      // [symbol * spans.length + span]
+    private final SlidingWindowExtremes[] minima;
+    private final SlidingWindowExtremes[] maxima;
+
+    /**
+     @param spans          EMA spans in ticks, e.g. {10, 50}
+     @param windows        rolling min/max windows, e.g. {1s, 1m}
+     @param windowCapacity samples per symbol and window, fixed: at least the ticks one window can hold
+                           (see SlidingWindowExtremes)
+     */
+    StreamingAnalytics(int symbols, int[] spans, Duration[] windows, int windowCapacity) {
+        this.spans = spans.clone();
+        this.alphas = new double[spans.length];
+        for (int i = 0; i < spans.length; i++) {
+            if (spans[i] <= 0) {
+                throw new IllegalArgumentException("EMA span must be positive: " + spans[i]);
+            }
+            alphas[i] = 2.0 / (spans[i] + 1);
+        }
+        this.version = new long[symbols];
+        this.count = new long[symbols];
+        this.mean = new double[symbols];
+        this.m2 = new double[symbols];
+        this.ema = new double[symbols * spans.length];
+        this.minima = new SlidingWindowExtremes[windows.length];
+        this.maxima = new SlidingWindowExtremes[windows.length];
+        for (int i = 0; i < windows.length; i++) {
+            minima[i] = SlidingWindowExtremes.min(symbols, windows[i].toNanos(), windowCapacity);
+            maxima[i] = SlidingWindowExtremes.max(symbols, windows[i].toNanos(), windowCapacity);
+        }
+    }
+
+    void onTick(int symbol, double price, long timestamp) {
+        long v = version[symbol];
+        VERSION.setOpaque(version, symbol, v + 1);
+        VarHandle.storeStoreFence();
+
+        long n = count[symbol] + 1;
+        count[symbol] = n;
+        double delta = price - mean[symbol];
+        mean[symbol] += delta / n;
+        m2[symbol] += delta * (price - mean[symbol]);
+
+        int base = symbol * spans.length;
+        for (int i = 0; i < spans.length; i++) {
+            ema[base + i] = n == 1 ? price : ema[base + i] + alphas[i] * (price - ema[base + i]);
+        }
+        for (int i = 0; i < minima.length; i++) {
+            minima[i].push(symbol, timestamp, price);
+            maxima[i].push(symbol, timestamp, price);
+        }
+
+        VERSION.setRelease(version, symbol, v + 2);
+    }
+
+    /** Reusable, caller-owned holder for read(); sized for this instance's spans and windows. */
+    Snapshot newSnapshot() {
+        return new Snapshot(spans.length, minima.length);
+    }
+
+    /** Copies a consistent view of the symbol's aggregates as of now into snapshot (no allocation). */
+    void read(int symbol, Snapshot snapshot) {
+        read(symbol, snapshot, Stock.epochNanos());
+    }
+
+    /** now is on the clock of the tick timestamps; windows with no tick since now - window read NaN. */
+    void read(int symbol, Snapshot snapshot, long now) {
+        int base = symbol * spans.length;
+        while (true) {
+            long before = (long) VERSION.getAcquire(version, symbol);
+            snapshot.count = count[symbol];
+            snapshot.mean = mean[symbol];
+            snapshot.variance = snapshot.count > 1 ? m2[symbol] / (snapshot.count - 1) : 0;
+            for (int i = 0; i < spans.length; i++) {
+                snapshot.ema[i] = ema[base + i];
+            }
+            for (int i = 0; i < minima.length; i++) {
+                snapshot.min[i] = minima[i].extreme(symbol, now);
+                snapshot.max[i] = maxima[i].extreme(symbol, now);
+            }
+            VarHandle.loadLoadFence();
+            if ((before & 1) == 0 && before == (long) VERSION.getOpaque(version, symbol)) {
+                return;
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    int[] spans() {
+        return spans.clone();
+    }
+
+    /** Aggregates of one symbol; ema[i] follows spans[i], min[i]/max[i] follow windows[i]. */
+    static final class Snapshot {
+        long count;
+        double mean;
+        double variance;
+        final double[] ema;
+        final double[] min;
+        final double[] max;
+
+        private Snapshot(int spans, int windows) {
+            ema = new double[spans];
+            min = new double[windows];
+            max = new double[windows];
+        }
+
+        @Override
+        public String toString() {
+            return "ticks=" + count + " mean=" + mean + " variance=" + variance
+                    + " ema=" + Arrays.toString(ema) + " min=" + Arrays.toString(min) + " max=" + Arrays.toString(max);
+        }
+    }
+
+    private static final VarHandle VERSION = MethodHandles.arrayElementVarHandle(long[].class);
+}
@@ -0,0 +1,67 @@
+package lld03_observer_pattern.stock_price_monitoring_system;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ Interns ticker symbols into dense int ids (0, 1, 2, ...) at instrument-load or
+ subscription time, so everything on the tick path can index arrays by id
+ instead of hashing strings.
+
+ - intern() is the only place a symbol string is hashed; ids are never reused.
+ - symbol(id) is a plain array read for logging and display.
+ */
+class SymbolDictionary {
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private volatile String[] symbols;
+    private int size;
+
+    SymbolDictionary() {
+        this(1024);
+    }
+
+    SymbolDictionary(int expectedSymbols) {
+        this.symbols = new String[Math.max(16, expectedSymbols)];
+    }
+
+    /** Returns the symbol's id, assigning the next free one the first time it is seen. */
+    int intern(String symbol) {
+        Integer id = ids.get(symbol);
+        return id != null ? id : assign(symbol);
+    }
+
+    /** Returns the symbol's id, or -1 if it was never interned. */
+    int id(String symbol) {
+        Integer id = ids.get(symbol);
+        return id != null ? id : -1;
+    }
+
+    String symbol(int id) {
+        String[] names = symbols;
+        if (id < 0 || id >= names.length || names[id] == null) {
+            throw new IllegalArgumentException("unknown symbol id: " + id);
+        }
+        return names[id];
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    private synchronized int assign(String symbol) {
+        Integer existing = ids.get(symbol);
+        if (existing != null) {
+            return existing;
+        }
+        int id = size++;
+        String[] names = symbols;
+        if (id == names.length) {
+            names = Arrays.copyOf(names, names.length * 2);
+        }
+        names[id] = symbol;
+        symbols = names;        // publish the name before the id becomes visible
+        ids.put(symbol, id);
+        return id;
+    }
+}
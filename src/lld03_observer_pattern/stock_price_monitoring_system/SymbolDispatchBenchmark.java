@@ -0,0 +1,79 @@
+package lld03_observer_pattern.stock_price_monitoring_system;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ Routing a tick to its Stock across 50k symbols, three ways:
+   - string key, cached hash:  HashMap<String, Stock>.get with interned String keys
+   - string key, decoded:      the symbol is decoded from wire bytes first, so the
+                               lookup pays for the new String and its hash, as a text feed does
+   - int id:                   StockRepository.onTick, an array index
+
+ Each routed tick goes through Stock.updatePrice to one cheap observer.
+
+ Run: java lld03_observer_pattern.stock_price_monitoring_system.SymbolDispatchBenchmark [symbols] [ticks]
+ */
+public class SymbolDispatchBenchmark {
+
+    private static final int FEED = 1 << 20;
+
+    public static void main(String[] args) {
+        int symbols = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        long ticks = args.length > 1 ? Long.parseLong(args[1]) : 20_000_000L;
+
+        StockRepository repository = new StockRepository(symbols);
+        Map<String, Stock> bySymbol = new HashMap<>();
+        String[] names = new String[symbols];
+        byte[][] wire = new byte[symbols][];
+        long[] checksum = new long[1];
+        StockObserver observer = (type, stock) -> checksum[0] += stock.getId();
+        for (int id = 0; id < symbols; id++) {
+            names[id] = "SYM" + id;
+            wire[id] = names[id].getBytes(StandardCharsets.US_ASCII);
+            Stock stock = repository.list(names[id], 100);
+            stock.addObserver(observer);
+            bySymbol.put(names[id], stock);
+        }
+
+        Random random = new Random(42);
+        int[] ids = new int[FEED];
+        double[] prices = new double[FEED];
+        for (int i = 0; i < FEED; i++) {
+            ids[i] = random.nextInt(symbols);
+            prices[i] = 100 + random.nextGaussian();
+        }
+
+        for (int round = 1; round <= 3; round++) {
+            long start = System.nanoTime();
+            for (long i = 0; i < ticks; i++) {
+                int slot = (int) (i & (FEED - 1));
+                bySymbol.get(names[ids[slot]]).updatePrice(prices[slot], i);
+            }
+            report(round, "string key, cached hash", ticks, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for (long i = 0; i < ticks; i++) {
+                int slot = (int) (i & (FEED - 1));
+                String symbol = new String(wire[ids[slot]], StandardCharsets.US_ASCII);
+                bySymbol.get(symbol).updatePrice(prices[slot], i);
+            }
+            report(round, "string key, decoded", ticks, System.nanoTime() - start);
+
+            start = System.nanoTime();
+            for (long i = 0; i < ticks; i++) {
+                int slot = (int) (i & (FEED - 1));
+                repository.onTick(ids[slot], prices[slot], i);
+            }
+            report(round, "int id", ticks, System.nanoTime() - start);
+        }
+        System.out.println("checksum " + checksum[0]);
+    }
+
+    private static void report(int round, String label, long ticks, long nanos) {
+        System.out.printf("round %d, %-24s %,6.1f ns/tick (%,.0f ticks/s)%n",
+                round, label + ":", (double) nanos / ticks, ticks * 1e9 / nanos);
+    }
+}
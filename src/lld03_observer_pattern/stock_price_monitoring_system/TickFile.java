@@ -0,0 +1,181 @@
+package lld03_observer_pattern.stock_price_monitoring_system;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ Compact binary tick feed: a 16-byte header followed by 16-byte records.
+
+ Layout (little endian):
+   - header: magic "TICK" (int) | symbols (int) | tick count (long)
+   - record: symbolId (int) | nanos since the previous tick (int) | price (double)
+
+ Time is stored as a delta so a record stays 16 bytes; a gap longer than
+ Integer.MAX_VALUE ns (~2.1 s) is shortened to that on write.
+
+ Files are read through read-only mappings of at most 1 GB each, so a replay
+ touches no heap per tick and the page cache does the buffering.
+ */
+class TickFile implements AutoCloseable {
+
+    /** Receives replayed ticks; timestamp is relative to the first tick of the file. */
+    interface TickHandler {
+        void onTick(long index, int symbolId, double price, long timestamp);
+    }
+
+    static final int MAGIC = 0x4B434954; // "TICK" in little endian
+    static final int HEADER_SIZE = 16;
+    static final int RECORD_SIZE = 16;
+
+    private static final int RECORDS_PER_MAPPING = (1 << 30) / RECORD_SIZE;
+
+    private final int symbols;
+    private final long count;
+    private final List<MappedByteBuffer> mappings = new ArrayList<>();
+
+    private TickFile(int symbols, long count) {
+        this.symbols = symbols;
+        this.count = count;
+    }
+
+    static TickFile open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // keep reading until the header is complete
+            }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt(0) != MAGIC) {
+                throw new IOException("not a tick file: " + file);
+            }
+            TickFile ticks = new TickFile(header.getInt(4), header.getLong(8));
+            if (channel.size() < HEADER_SIZE + ticks.count * RECORD_SIZE) {
+                throw new IOException("tick file truncated: " + file);
+            }
+            for (long first = 0; first < ticks.count; first += RECORDS_PER_MAPPING) {
+                long records = Math.min(RECORDS_PER_MAPPING, ticks.count - first);
+                MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_ONLY,
+                        HEADER_SIZE + first * RECORD_SIZE, records * RECORD_SIZE);
+                mapping.order(ByteOrder.LITTLE_ENDIAN);
+                ticks.mappings.add(mapping);
+            }
+            return ticks;
+        }
+    }
+
+    int symbols() {
+        return symbols;
+    }
+
+    long count() {
+        return count;
+    }
+
+    /** Calls handler for every tick in file order; returns the relative time of the last one. */
+    long replay(TickHandler handler) {
+        long timestamp = 0;
+        long index = 0;
+        for (MappedByteBuffer mapping : mappings) {
+            int records = mapping.capacity() / RECORD_SIZE;
+            for (int slot = 0; slot < records; slot++, index++) {
+                int position = slot * RECORD_SIZE;
+                timestamp += mapping.getInt(position + 4);
+                handler.onTick(index, mapping.getInt(position), mapping.getDouble(position + 8), timestamp);
+            }
+        }
+        return timestamp;
+    }
+
+    @Override
+    public void close() {
+        mappings.clear(); // mappings are released once unreachable
+    }
+
+    static Writer create(Path file, int symbols) throws IOException {
+        return new Writer(file, symbols);
+    }
+
+    /**
+     Writes a synthetic feed: every symbol follows its own Gaussian random walk
+     (volatility per tick, starting at 100), ticks pick symbols uniformly and
+     arrive with exponential gaps at the given average rate.
+     */
+    static void generate(Path file, int symbols, long ticks, double ticksPerSecond, double volatility, long seed)
+            throws IOException {
+        Random random = new Random(seed);
+        double[] prices = new double[symbols];
+        Arrays.fill(prices, 100);
+        double meanGapNanos = 1e9 / ticksPerSecond;
+        try (Writer writer = create(file, symbols)) {
+            long timestamp = 0;
+            for (long i = 0; i < ticks; i++) {
+                int id = random.nextInt(symbols);
+                prices[id] = Math.max(0.01, prices[id] * (1 + random.nextGaussian() * volatility));
+                timestamp += (long) (-Math.log(1 - random.nextDouble()) * meanGapNanos);
+                writer.append(id, prices[id], timestamp);
+            }
+        }
+    }
+
+    /** Appends ticks through a direct buffer; the header's count is written on close. */
+    static final class Writer implements AutoCloseable {
+
+        private final FileChannel channel;
+        private final int symbols;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_SIZE * 4096).order(ByteOrder.LITTLE_ENDIAN);
+
+        private long count;
+        private long lastTimestamp;
+
+        private Writer(Path file, int symbols) throws IOException {
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.symbols = symbols;
+            channel.position(HEADER_SIZE);
+        }
+
+        /** timestamp in nanos on any clock, must not go backwards. */
+        void append(int symbolId, double price, long timestamp) throws IOException {
+            if (symbolId < 0 || symbolId >= symbols) {
+                throw new IllegalArgumentException("symbol id out of range: " + symbolId);
+            }
+            long delta = count == 0 ? 0 : timestamp - lastTimestamp;
+            if (delta < 0) {
+                throw new IllegalArgumentException("timestamps must not go backwards");
+            }
+            if (!buffer.hasRemaining()) {
+                drain();
+            }
+            buffer.putInt(symbolId).putInt((int) Math.min(delta, Integer.MAX_VALUE)).putDouble(price);
+            lastTimestamp = timestamp;
+            count++;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try (channel) {
+                drain();
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC).putInt(symbols).putLong(count).flip();
+                channel.write(header, 0);
+            }
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
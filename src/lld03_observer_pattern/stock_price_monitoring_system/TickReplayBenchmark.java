@@ -0,0 +1,87 @@
+package lld03_observer_pattern.stock_price_monitoring_system;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Random;
+
+/**
+ End-to-end replay of a synthetic Gaussian-walk feed through Stock and all four
+ observers (alerts with 5 rules per symbol, streaming analytics, the drawdown
+ detector and the conflated dashboard), first as fast as possible, then at the
+ recorded pacing. Prints ticks/s and updatePrice latency percentiles, so runs
+ can be compared release to release.
+
+ The observers' own console output is discarded during the replay, otherwise
+ the terminal would be what gets measured.
+
+ Run: java lld03_observer_pattern.stock_price_monitoring_system.TickReplayBenchmark [symbols] [ticks] [ticksPerSecond] [file]
+ */
+public class TickReplayBenchmark {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int symbols = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        long ticks = args.length > 1 ? Long.parseLong(args[1]) : 2_000_000L;
+        double rate = args.length > 2 ? Double.parseDouble(args[2]) : 200_000;
+        Path path = args.length > 3 ? Path.of(args[3]) : Files.createTempFile("ticks", ".bin");
+
+        if (args.length <= 3 || Files.notExists(path)) {
+            long start = System.nanoTime();
+            TickFile.generate(path, symbols, ticks, rate, 0.002, 42);
+            System.out.printf("generated %,d ticks for %,d symbols at %,.0f ticks/s (%,d MB) in %d ms%n",
+                    ticks, symbols, rate, Files.size(path) >> 20, (System.nanoTime() - start) / 1_000_000);
+        }
+
+        PrintStream console = System.out;
+        try (TickFile file = TickFile.open(path)) {
+            for (double speed : new double[] {0, 0, 1}) {
+                Stock[] stocks = new Stock[file.symbols()];
+                LatencySamples latency = new LatencySamples(1 << 22);
+                int sampleEvery = (int) Math.max(1, file.count() / (1 << 22));
+                long nanos;
+                System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+                try (ConflatingStockObserver dashboard =
+                             new ConflatingStockObserver(new DashboardService(), stocks.length, Duration.ofMillis(33))) {
+                    wire(stocks, dashboard);
+                    nanos = new TickReplayer(stocks, speed).replay(file, latency, sampleEvery);
+                } finally {
+                    System.setOut(console);
+                }
+                console.printf("%s: %,d ticks in %d ms -> %,.0f ticks/s%n",
+                        speed == 0 ? "max speed" : "paced x" + speed,
+                        file.count(), nanos / 1_000_000, file.count() * 1e9 / nanos);
+                console.println(latency.summary("  end-to-end"));
+            }
+        } finally {
+            if (args.length <= 3) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static void wire(Stock[] stocks, StockObserver dashboard) {
+        int symbols = stocks.length;
+        AlertService alerts = new AlertService(symbols);
+        Random random = new Random(7);
+        for (int id = 0; id < symbols; id++) {
+            for (int rule = 0; rule < 5; rule++) {
+                alerts.addRule(id, random.nextBoolean() ? AlertDirection.ABOVE : AlertDirection.BELOW,
+                        90 + random.nextDouble() * 20);
+            }
+        }
+        AnalyticsService analytics = new AnalyticsService(new StreamingAnalytics(symbols,
+                new int[] {10, 50}, new Duration[] {Duration.ofSeconds(1), Duration.ofSeconds(10)}, 64));
+        TradingService trading = new TradingService(new DrawdownDetector(symbols, Duration.ofSeconds(1), 64, 5,
+                (id, peak, price, drawdown, timestamp) -> System.out.println("Trading signal: " + id)));
+        for (int id = 0; id < symbols; id++) {
+            stocks[id] = new Stock(id, "S" + id, 100, 100);
+            stocks[id].addObserver(alerts);
+            stocks[id].addObserver(analytics);
+            stocks[id].addObserver(trading);
+            stocks[id].addObserver(dashboard);
+        }
+    }
+}
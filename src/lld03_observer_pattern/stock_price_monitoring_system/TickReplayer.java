@@ -0,0 +1,70 @@
+package lld03_observer_pattern.stock_price_monitoring_system;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ Drives Stock.updatePrice from a TickFile, so every registered observer sees
+ the feed exactly as it would see a live one.
+
+ - speed 0 replays as fast as possible; any other speed follows the recorded
+   gaps scaled by it (1 = recorded pacing, 2 = twice as fast, ...).
+ - Each tick is stamped with the time it became due (epoch nanos, like
+   Stock.updatePrice(price)), and the time from then until updatePrice returned
+   is its end-to-end latency.
+   When paced, a tick the replayer is late for counts the lateness too, so
+   queueing behind slow observers shows up in the percentiles.
+ */
+class TickReplayer {
+
+    // below this a paced wait spins instead of parking, park wake-ups are too coarse
+    private static final long SPIN_NANOS = 50_000;
+
+    private final Stock[] stocks;
+    private final double speed;
+
+    /** @param stocks indexed by symbol id, one per symbol of the file */
+    TickReplayer(Stock[] stocks, double speed) {
+        if (speed < 0 || Double.isNaN(speed)) {
+            throw new IllegalArgumentException("speed must be 0 (max) or positive: " + speed);
+        }
+        this.stocks = stocks;
+        this.speed = speed;
+    }
+
+    /**
+     Replays the whole file; every sampleEvery-th tick's latency goes to latency.
+     Returns the wall time of the replay in nanos.
+     */
+    long replay(TickFile file, LatencySamples latency, int sampleEvery) {
+        if (file.symbols() > stocks.length) {
+            throw new IllegalArgumentException("file has " + file.symbols() + " symbols, only " + stocks.length + " stocks");
+        }
+        long start = System.nanoTime();
+        long toEpoch = Stock.epochNanos() - System.nanoTime();
+        file.replay((index, symbolId, price, timestamp) -> {
+            long due;
+            if (speed == 0) {
+                due = System.nanoTime();
+            } else {
+                due = start + (long) (timestamp / speed);
+                waitUntil(due);
+            }
+            stocks[symbolId].updatePrice(price, due + toEpoch);
+            if (index % sampleEvery == 0) {
+                latency.record(System.nanoTime() - due);
+            }
+        });
+        return System.nanoTime() - start;
+    }
+
+    private static void waitUntil(long due) {
+        long wait;
+        while ((wait = due - System.nanoTime()) > 0) {
+            if (wait > SPIN_NANOS) {
+                LockSupport.parkNanos(wait - SPIN_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package lld03_observer_pattern.stock_price_monitoring_system;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ Bounded lock-free queue of ticks with a single consumer, for handing ticks
+ from feed threads to a shard worker.
+
+ - Ticks are stored in parallel primitive arrays (id, price, timestamp), so
+   nothing is allocated per tick.
+ - Every slot has a sequence number (Vyukov's bounded queue): a producer may
+   fill slot i when its sequence equals the claimed position, the consumer may
+   read it when it equals position + 1, and hands it back by adding capacity.
+ - singleProducer skips the CAS on the tail (SPSC); only use it when exactly one
+   thread ever offers to this ring. Otherwise producers claim positions with a CAS (MPSC).
+ */
+class TickRing {
+
+    interface TickHandler {
+        void onTick(int symbolId, double price, long timestamp);
+    }
+
+    // head and tail sit 128 bytes apart so producers and the consumer don't share a cache line
+    private static final int PAD = 16;
+    private static final int TAIL = PAD;
+    private static final int HEAD = 2 * PAD;
+
+    private final boolean singleProducer;
+    private final int mask;
+    private final long[] sequences;
+    private final int[] ids;
+    private final double[] prices;
+    private final long[] timestamps;
+    private final long[] cursors = new long[3 * PAD];
+
+    /** capacity is rounded up to a power of two. */
+    TickRing(int capacity, boolean singleProducer) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        int size = capacity == 1 ? 1 : Integer.highestOneBit(capacity - 1) << 1;
+        this.singleProducer = singleProducer;
+        this.mask = size - 1;
+        this.sequences = new long[size];
+        this.ids = new int[size];
+        this.prices = new double[size];
+        this.timestamps = new long[size];
+        for (int i = 0; i < size; i++) {
+            sequences[i] = i;
+        }
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    /** Returns false if the ring is full. */
+    boolean offer(int symbolId, double price, long timestamp) {
+        long position;
+        int slot;
+        if (singleProducer) {
+            position = cursors[TAIL];
+            slot = (int) position & mask;
+            if ((long) LONGS.getAcquire(sequences, slot) != position) {
+                return false;
+            }
+            LONGS.setOpaque(cursors, TAIL, position + 1);
+        } else {
+            while (true) {
+                position = (long) LONGS.getOpaque(cursors, TAIL);
+                slot = (int) position & mask;
+                long sequence = (long) LONGS.getAcquire(sequences, slot);
+                if (sequence == position) {
+                    if (LONGS.compareAndSet(cursors, TAIL, position, position + 1)) {
+                        break;
+                    }
+                } else if (sequence < position) {
+                    return false; // the consumer has not freed this slot yet: full
+                }
+                // another producer took the position, retry with the next one
+            }
+        }
+        ids[slot] = symbolId;
+        prices[slot] = price;
+        timestamps[slot] = timestamp;
+        LONGS.setRelease(sequences, slot, position + 1);
+        return true;
+    }
+
+    /** Consumer side: hands up to limit ticks to handler in order, returns how many. */
+    int drain(TickHandler handler, int limit) {
+        long head = cursors[HEAD];
+        int drained = 0;
+        while (drained < limit) {
+            int slot = (int) head & mask;
+            if ((long) LONGS.getAcquire(sequences, slot) != head + 1) {
+                break;
+            }
+            int symbolId = ids[slot];
+            double price = prices[slot];
+            long timestamp = timestamps[slot];
+            LONGS.setRelease(sequences, slot, head + mask + 1);
+            head++;
+            LONGS.setOpaque(cursors, HEAD, head);
+            drained++;
+            handler.onTick(symbolId, price, timestamp);
+        }
+        return drained;
+    }
+
+    /** Approximate number of queued ticks. */
+    int size() {
+        long size = (long) LONGS.getOpaque(cursors, TAIL) - (long) LONGS.getOpaque(cursors, HEAD);
+        return (int) Math.max(0, Math.min(size, capacity()));
+    }
+
+    private static final VarHandle LONGS = MethodHandles.arrayElementVarHandle(long[].class);
+}
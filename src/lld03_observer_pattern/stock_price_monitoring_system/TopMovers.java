@@ -0,0 +1,319 @@
+package lld03_observer_pattern.stock_price_monitoring_system;
+
+import java.util.Arrays;
+
+/**
+ Incrementally maintained "top N gainers / losers since open" across all symbols.
+
+ - Symbols are split into shards the same way as PartitionedStockDispatcher
+   (contiguous id ranges), and each shard has exactly one writer. A shard keeps two
+   indexed binary heaps over its symbols' percent change (max-heap for gainers,
+   min-heap for losers); a tick re-sifts the symbol in both, O(log n), no allocation.
+ - Each shard publishes an immutable, sorted top-N list per side through a
+   volatile field. It is rebuilt (O(N log N) from the heap) only when the tick
+   could change it: the symbol is already listed, the list is not full yet, or
+   the new change beats the current N-th entry.
+ - Readers never lock or retry: gainers()/losers() read each shard's latest list
+   and merge them. Every shard's part is consistent on its own; parts of
+   different shards may be a tick apart.
+
+ The open price of a symbol is the Stock's previous price on its first tick
+ (the listing price), unless set earlier with open(id, price).
+ */
+class TopMovers implements StockObserver {
+
+    private final int n;
+    private final int symbols;
+    private final int shards;
+    private final double[] open;
+    private final double[] change;
+    private final Shard[] shardState;
+
+    /**
+     shards must match the dispatcher's shard count (1 when observers run on the feed
+     thread), and symbols the number of symbols listed when the dispatcher was built.
+     */
+    TopMovers(int symbols, int shards, int n) {
+        if (symbols <= 0 || shards <= 0 || n <= 0) {
+            throw new IllegalArgumentException("symbols, shards and n must be positive");
+        }
+        this.n = n;
+        this.symbols = symbols;
+        this.shards = shards;
+        this.open = new double[symbols];
+        this.change = new double[symbols];
+        this.shardState = new Shard[shards];
+        for (int shard = 0; shard < shards; shard++) {
+            int first = firstOf(shard);
+            shardState[shard] = new Shard(first, firstOf(shard + 1) - first);
+        }
+    }
+
+    @Override
+    public void onStockUpdate(StockEventType stockEventType, Stock Stock) {
+        if (stockEventType == StockEventType.PRICE_UPDATED) {
+            int id = Stock.getId();
+            if (open[id] == 0) {
+                open[id] = Stock.getPreviousPrice();
+            }
+            update(id, Stock.getCurrentPrice());
+        }
+    }
+
+    /** Sets the reference price for percent change; call from the symbol's shard writer. */
+    void open(int symbolId, double price) {
+        open[symbolId] = price;
+    }
+
+    void update(int symbolId, double price) {
+        double base = open[symbolId];
+        change[symbolId] = base > 0 ? (price - base) / base * 100 : 0;
+        shardState[shardOf(symbolId)].update(symbolId);
+    }
+
+    /** Same split as PartitionedStockDispatcher.shardOf. */
+    private int shardOf(int symbolId) {
+        return (int) (((symbolId + 1L) * shards - 1) / symbols);
+    }
+
+    private int firstOf(int shard) {
+        return (int) ((long) shard * symbols / shards);
+    }
+
+    /** Fills ids/changes with the top gainers, best first; returns how many were filled. */
+    int gainers(int[] ids, double[] changes) {
+        return merge(true, ids, changes);
+    }
+
+    /** Fills ids/changes with the top losers, worst first; returns how many were filled. */
+    int losers(int[] ids, double[] changes) {
+        return merge(false, ids, changes);
+    }
+
+    private int merge(boolean gainers, int[] ids, double[] changes) {
+        Ranking[] parts = new Ranking[shards];
+        int[] cursors = new int[shards];
+        for (int shard = 0; shard < shards; shard++) {
+            parts[shard] = gainers ? shardState[shard].gainers : shardState[shard].losers;
+        }
+        int limit = Math.min(n, Math.min(ids.length, changes.length));
+        int filled = 0;
+        while (filled < limit) {
+            int best = -1;
+            for (int shard = 0; shard < shards; shard++) {
+                Ranking part = parts[shard];
+                if (cursors[shard] < part.ids.length && (best < 0 || beats(gainers,
+                        part.changes[cursors[shard]], parts[best].changes[cursors[best]]))) {
+                    best = shard;
+                }
+            }
+            if (best < 0) {
+                break;
+            }
+            ids[filled] = parts[best].ids[cursors[best]];
+            changes[filled] = parts[best].changes[cursors[best]];
+            cursors[best]++;
+            filled++;
+        }
+        return filled;
+    }
+
+    private static boolean beats(boolean max, double a, double b) {
+        return max ? a > b : a < b;
+    }
+
+    /** Immutable, sorted top-N of one shard and side. */
+    private static final class Ranking {
+
+        static final Ranking EMPTY = new Ranking(new int[0], new double[0]);
+
+        final int[] ids;
+        final double[] changes;
+
+        Ranking(int[] ids, double[] changes) {
+            this.ids = ids;
+            this.changes = changes;
+        }
+    }
+
+    private final class Shard {
+
+        private final IndexedHeap gainerHeap;
+        private final IndexedHeap loserHeap;
+        private final boolean[] inGainers;
+        private final boolean[] inLosers;
+        private volatile Ranking gainers = Ranking.EMPTY;
+        private volatile Ranking losers = Ranking.EMPTY;
+
+        private final int first;
+
+        Shard(int first, int capacity) {
+            this.first = first;
+            this.gainerHeap = new IndexedHeap(first, capacity, true);
+            this.loserHeap = new IndexedHeap(first, capacity, false);
+            this.inGainers = new boolean[capacity];
+            this.inLosers = new boolean[capacity];
+        }
+
+        void update(int symbolId) {
+            int local = symbolId - first;
+            double value = change[symbolId];
+            gainerHeap.update(local);
+            loserHeap.update(local);
+            Ranking current = gainers;
+            if (inGainers[local] || current.ids.length < n || value > current.changes[current.ids.length - 1]) {
+                gainers = republish(gainerHeap, current, inGainers);
+            }
+            current = losers;
+            if (inLosers[local] || current.ids.length < n || value < current.changes[current.ids.length - 1]) {
+                losers = republish(loserHeap, current, inLosers);
+            }
+        }
+
+        private Ranking republish(IndexedHeap heap, Ranking previous, boolean[] listed) {
+            for (int id : previous.ids) {
+                listed[id - first] = false;
+            }
+            int count = Math.min(n, heap.size());
+            int[] ids = new int[count];
+            double[] changes = new double[count];
+            heap.top(count, ids);
+            for (int i = 0; i < count; i++) {
+                changes[i] = change[ids[i]];
+                listed[ids[i] - first] = true;
+            }
+            return new Ranking(ids, changes);
+        }
+    }
+
+    /**
+     Binary heap of a shard's symbols keyed by change[], with pos[] so a symbol
+     whose key moved can be re-sifted in place. Local index k is symbol first + k.
+     */
+    private final class IndexedHeap {
+
+        private final int first;
+        private final boolean max;
+        private final int[] heap;
+        private final int[] pos;
+        private int size;
+
+        // scratch for top(): a small heap of heap positions, the frontier of the walk
+        private final int[] frontier;
+
+        IndexedHeap(int first, int capacity, boolean max) {
+            this.first = first;
+            this.max = max;
+            this.heap = new int[capacity];
+            this.pos = new int[capacity];
+            this.frontier = new int[2 * n + 1];
+            Arrays.fill(pos, -1);
+        }
+
+        int size() {
+            return size;
+        }
+
+        void update(int local) {
+            int at = pos[local];
+            if (at < 0) {
+                at = size++;
+                heap[at] = local;
+                pos[local] = at;
+            }
+            siftDown(siftUp(at));
+        }
+
+        /** Writes the count best symbol ids, best first, without modifying the heap. */
+        void top(int count, int[] out) {
+            int frontierSize = 0;
+            if (size > 0) {
+                frontier[frontierSize++] = 0;
+            }
+            for (int i = 0; i < count; i++) {
+                int at = frontier[0];
+                out[i] = symbolAt(at);
+                frontier[0] = frontier[--frontierSize];
+                frontierSiftDown(frontierSize);
+                for (int child = 2 * at + 1; child <= 2 * at + 2 && child < size; child++) {
+                    int j = frontierSize++;
+                    frontier[j] = child;
+                    while (j > 0 && better(frontier[j], frontier[(j - 1) / 2])) {
+                        swapFrontier(j, (j - 1) / 2);
+                        j = (j - 1) / 2;
+                    }
+                }
+            }
+        }
+
+        private int siftUp(int at) {
+            while (at > 0) {
+                int parent = (at - 1) / 2;
+                if (!better(at, parent)) {
+                    break;
+                }
+                swap(at, parent);
+                at = parent;
+            }
+            return at;
+        }
+
+        private void siftDown(int at) {
+            while (true) {
+                int child = 2 * at + 1;
+                if (child >= size) {
+                    return;
+                }
+                if (child + 1 < size && better(child + 1, child)) {
+                    child++;
+                }
+                if (!better(child, at)) {
+                    return;
+                }
+                swap(at, child);
+                at = child;
+            }
+        }
+
+        private void frontierSiftDown(int frontierSize) {
+            int j = 0;
+            while (true) {
+                int child = 2 * j + 1;
+                if (child >= frontierSize) {
+                    return;
+                }
+                if (child + 1 < frontierSize && better(frontier[child + 1], frontier[child])) {
+                    child++;
+                }
+                if (!better(frontier[child], frontier[j])) {
+                    return;
+                }
+                swapFrontier(j, child);
+                j = child;
+            }
+        }
+
+        /** Compares the symbols at two heap positions. */
+        private boolean better(int a, int b) {
+            return beats(max, change[symbolAt(a)], change[symbolAt(b)]);
+        }
+
+        private int symbolAt(int at) {
+            return first + heap[at];
+        }
+
+        private void swap(int a, int b) {
+            int t = heap[a];
+            heap[a] = heap[b];
+            heap[b] = t;
+            pos[heap[a]] = a;
+            pos[heap[b]] = b;
+        }
+
+        private void swapFrontier(int a, int b) {
+            int t = frontier[a];
+            frontier[a] = frontier[b];
+            frontier[b] = t;
+        }
+    }
+}
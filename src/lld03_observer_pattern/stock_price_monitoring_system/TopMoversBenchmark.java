@@ -0,0 +1,107 @@
+package lld03_observer_pattern.stock_price_monitoring_system;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ Cost of keeping TopMovers current and of reading it, 10k symbols, top 20.
+
+ Ticks go through a PartitionedStockDispatcher with the same shard count as
+ TopMovers, while a reader thread polls gainers() and losers() as a dashboard
+ would. At the end the published ranking is checked against a full scan.
+
+ Run: java lld03_observer_pattern.stock_price_monitoring_system.TopMoversBenchmark [shards] [ticks]
+ */
+public class TopMoversBenchmark {
+
+    private static final int SYMBOLS = 10_000;
+    private static final int TOP = 20;
+    private static final int FEED = 1 << 20;
+
+    public static void main(String[] args) throws InterruptedException {
+        int shards = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        long ticks = args.length > 1 ? Long.parseLong(args[1]) : 20_000_000L;
+
+        Random random = new Random(42);
+        int[] ids = new int[FEED];
+        double[] prices = new double[FEED];
+        double[] walk = new double[SYMBOLS];
+        Arrays.fill(walk, 100);
+        for (int i = 0; i < FEED; i++) {
+            ids[i] = random.nextInt(SYMBOLS);
+            walk[ids[i]] *= 1 + random.nextGaussian() * 0.002;
+            prices[i] = walk[ids[i]];
+        }
+
+        for (int round = 1; round <= 3; round++) {
+            StockRepository stocks = new StockRepository(SYMBOLS);
+            TopMovers movers = new TopMovers(SYMBOLS, shards, TOP);
+            for (int id = 0; id < SYMBOLS; id++) {
+                stocks.list("S" + id, 100).addObserver(movers);
+            }
+
+            AtomicBoolean done = new AtomicBoolean();
+            long[] reads = new long[1];
+            Thread reader = new Thread(() -> {
+                int[] topIds = new int[TOP];
+                double[] topChanges = new double[TOP];
+                while (!done.get()) {
+                    movers.gainers(topIds, topChanges);
+                    movers.losers(topIds, topChanges);
+                    reads[0] += 2;
+                    Thread.yield();
+                }
+            });
+            reader.start();
+
+            long start = System.nanoTime();
+            PartitionedStockDispatcher dispatcher = new PartitionedStockDispatcher(stocks, shards, 1 << 14, true);
+            for (long i = 0; i < ticks; i++) {
+                int slot = (int) (i & (FEED - 1));
+                dispatcher.publish(ids[slot], prices[slot], i);
+            }
+            dispatcher.close();
+            long nanos = System.nanoTime() - start;
+            done.set(true);
+            reader.join();
+
+            int[] topIds = new int[TOP];
+            double[] topChanges = new double[TOP];
+            long readStart = System.nanoTime();
+            for (int i = 0; i < 100_000; i++) {
+                movers.gainers(topIds, topChanges);
+            }
+            long readNanos = (System.nanoTime() - readStart) / 100_000;
+
+            System.out.printf("round %d: %d shard(s), %,.0f ticks/s with TopMovers, %,d concurrent reads, "
+                            + "%d ns per top-%d read, matches full scan: %b%n",
+                    round, shards, ticks * 1e9 / nanos, reads[0], readNanos, TOP, matchesScan(stocks, movers));
+        }
+    }
+
+    private static boolean matchesScan(StockRepository stocks, TopMovers movers) {
+        Integer[] order = new Integer[SYMBOLS];
+        double[] change = new double[SYMBOLS];
+        for (int id = 0; id < SYMBOLS; id++) {
+            order[id] = id;
+            change[id] = (stocks.stock(id).getCurrentPrice() - 100) / 100 * 100;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(change[b], change[a]));
+        int[] topIds = new int[TOP];
+        double[] topChanges = new double[TOP];
+        movers.gainers(topIds, topChanges);
+        for (int i = 0; i < TOP; i++) {
+            if (topChanges[i] != change[order[i]]) {
+                return false;
+            }
+        }
+        movers.losers(topIds, topChanges);
+        for (int i = 0; i < TOP; i++) {
+            if (topChanges[i] != change[order[SYMBOLS - 1 - i]]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,77 @@
+package lld03_observer_pattern.stock_price_monitoring_system;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ Latency from Stock.updatePrice to a TradingService signal at 10k symbols.
+
+ Every symbol follows a Gaussian random walk; now and then one crashes by 6-10%
+ so the 5% detector fires. The tick timestamp is taken right before updatePrice,
+ the signal handler stamps the time it ran, and the difference is one sample.
+ The per-tick cost of updatePrice (signal or not) is sampled as well, since the
+ worst case of the ring buffer shows up on ordinary ticks.
+
+ Run: java lld03_observer_pattern.stock_price_monitoring_system.TradingLatencyBenchmark [ticks]
+ */
+public class TradingLatencyBenchmark {
+
+    private static final int SYMBOLS = 10_000;
+    private static final int FEED = 1 << 20;
+    private static final int SAMPLES = 1 << 20;
+
+    public static void main(String[] args) {
+        long ticks = args.length > 0 ? Long.parseLong(args[0]) : 50_000_000L;
+
+        int[] ids = new int[FEED];
+        double[] prices = new double[FEED];
+        fillFeed(ids, prices);
+
+        for (int round = 1; round <= 3; round++) {
+            LatencySamples signals = new LatencySamples(SAMPLES);
+            DrawdownDetector detector = new DrawdownDetector(SYMBOLS, Duration.ofMillis(100), 256, 5,
+                    (id, peak, price, drawdown, timestamp) -> signals.record(System.nanoTime() - timestamp));
+            TradingService trading = new TradingService(detector);
+            Stock[] stocks = new Stock[SYMBOLS];
+            for (int id = 0; id < SYMBOLS; id++) {
+                stocks[id] = new Stock(id, "S" + id, 100, 100);
+                stocks[id].addObserver(trading);
+            }
+
+            LatencySamples updates = new LatencySamples(SAMPLES);
+            long start = System.nanoTime();
+            for (long i = 0; i < ticks; i++) {
+                int slot = (int) (i & (FEED - 1));
+                Stock stock = stocks[ids[slot]];
+                if ((i & 63) == 0) {
+                    long before = System.nanoTime();
+                    stock.updatePrice(prices[slot], before);
+                    updates.record(System.nanoTime() - before);
+                } else {
+                    stock.updatePrice(prices[slot], System.nanoTime());
+                }
+            }
+            long nanos = System.nanoTime() - start;
+
+            System.out.printf("round %d: %,d ticks in %d ms (%,.0f ticks/s), %,d signals%n",
+                    round, ticks, nanos / 1_000_000, ticks * 1e9 / nanos, signals.recorded());
+            System.out.println(updates.summary("  updatePrice"));
+            System.out.println(signals.summary("  tick->signal"));
+        }
+    }
+
+    private static void fillFeed(int[] ids, double[] prices) {
+        Random random = new Random(42);
+        double[] walk = new double[SYMBOLS];
+        Arrays.fill(walk, 100);
+        for (int i = 0; i < FEED; i++) {
+            int id = random.nextInt(SYMBOLS);
+            walk[id] *= random.nextInt(2_000) == 0
+                    ? 0.90 + random.nextDouble() * 0.04  // crash
+                    : 1 + random.nextGaussian() * 0.001;
+            ids[i] = id;
+            prices[i] = walk[id];
+        }
+    }
+}
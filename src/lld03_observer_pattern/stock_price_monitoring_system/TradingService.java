@@ -0,0 +1,18 @@
+package lld03_observer_pattern.stock_price_monitoring_system;
+
+class TradingService implements StockObserver {
+
+   // peak per sliding window in a fixed ring per symbol, no allocation per tick
+   private final DrawdownDetector detector;
+
+   public TradingService(DrawdownDetector detector) {
+       this.detector = detector;
+   }
+
+   @Override
+   public void onStockUpdate(StockEventType stockEventType, Stock Stock) {
+       if(stockEventType == StockEventType.PRICE_UPDATED) {
+           detector.onTick(Stock.getId(), Stock.getCurrentPrice(), Stock.getTimestamp());
+       }
+   }
+}
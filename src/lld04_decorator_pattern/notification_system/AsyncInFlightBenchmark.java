@@ -0,0 +1,93 @@
+package lld04_decorator_pattern.notification_system;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ One producer thread sending through InFlightLimitDecorator(100k) ->
+ EncryptionDecorator -> a gateway that answers after 100 ms:
+   - sync:         send(), the producer waits out every round trip
+   - async gateway: the gateway's own sendAsync completes on a timer
+   - blocking gateway: only send() is implemented, so the default sendAsync
+                   parks one virtual thread per message in flight
+ The async runs use sendAsyncBlocking, so the producer is held back at the
+ limit rather than having sends rejected.
+ Reports messages/s, the most sends in flight at once and the heap in use at
+ that point. With 100 ms per send the async ceiling is limit / latency = 1M/s.
+
+ Run: java lld04_decorator_pattern.notification_system.AsyncInFlightBenchmark [messages] [maxInFlight]
+ */
+public class AsyncInFlightBenchmark {
+
+    private static final long LATENCY_NANOS = 100_000_000L;
+
+    public static void main(String[] args) throws Exception {
+        int messages = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int maxInFlight = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+
+        Notification blocking = message -> LockSupport.parkNanos(LATENCY_NANOS);
+        Notification async = new Notification() {
+            @Override
+            public void send(String message) {
+                LockSupport.parkNanos(LATENCY_NANOS);
+            }
+
+            @Override
+            public CompletionStage<Void> sendAsync(String message) {
+                // completes on the timer thread, like a client library's I/O thread would
+                return CompletableFuture.runAsync(() -> { },
+                        CompletableFuture.delayedExecutor(LATENCY_NANOS, TimeUnit.NANOSECONDS, Runnable::run));
+            }
+        };
+
+        InFlightLimitDecorator sync = new InFlightLimitDecorator(new EncryptionDecorator(blocking), maxInFlight);
+        long start = System.nanoTime();
+        for (int i = 0; i < 20; i++) {
+            sync.send("Your OTP is " + i);
+        }
+        System.out.printf("%-17s %,10.0f messages/s%n", "sync:", 20 * 1e9 / (System.nanoTime() - start));
+
+        for (int round = 1; round <= 2; round++) {
+            report("async gateway:", new InFlightLimitDecorator(new EncryptionDecorator(async), maxInFlight), messages);
+            report("blocking gateway:", new InFlightLimitDecorator(new EncryptionDecorator(blocking), maxInFlight),
+                    messages);
+        }
+    }
+
+    private static void report(String label, InFlightLimitDecorator notification, int messages) {
+        LongAdder failed = new LongAdder();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        LongAdder completed = new LongAdder();
+        int peak = 0;
+        long peakHeap = 0;
+        Runtime runtime = Runtime.getRuntime();
+
+        long start = System.nanoTime();
+        for (int i = 0; i < messages; i++) {
+            notification.sendAsyncBlocking("Your OTP is " + i).whenComplete((ignored, failure) -> {
+                if (failure != null) {
+                    failed.increment();
+                }
+                completed.increment();
+                if (completed.sum() == messages) {
+                    done.complete(null);
+                }
+            });
+            if ((i & 4095) == 0) {
+                int inFlight = notification.inFlight();
+                if (inFlight > peak) {
+                    peak = inFlight;
+                    peakHeap = runtime.totalMemory() - runtime.freeMemory();
+                }
+            }
+        }
+        done.join();
+        long nanos = System.nanoTime() - start;
+
+        System.out.printf("%-17s %,10.0f messages/s, peak %,d in flight, %,d MB heap at peak, %,d failed%n",
+                label, messages * 1e9 / nanos, peak, peakHeap >> 20, failed.sum());
+    }
+}
@@ -0,0 +1,64 @@
+package lld04_decorator_pattern.notification_system;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ One message per gateway call versus BatchingDecorator, against a simulated
+ gateway that costs CALL_NANOS per call plus MESSAGE_NANOS per message
+ (a bulk API: one round trip for the whole batch).
+
+ Run: java lld04_decorator_pattern.notification_system.BatchingBenchmark [messages] [batchSize]
+ */
+public class BatchingBenchmark {
+
+    private static final long CALL_NANOS = 200_000;
+    private static final long MESSAGE_NANOS = 1_000;
+
+    /** Stand-in for a remote gateway with a bulk endpoint. */
+    static final class Gateway implements Notification {
+
+        final LongAdder calls = new LongAdder();
+        final LongAdder messages = new LongAdder();
+
+        @Override
+        public void send(String message) {
+            send(List.of(message));
+        }
+
+        @Override
+        public void send(List<String> batch) {
+            LockSupport.parkNanos(CALL_NANOS + MESSAGE_NANOS * batch.size());
+            calls.increment();
+            messages.add(batch.size());
+        }
+    }
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        int batchSize = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+
+        Gateway direct = new Gateway();
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            direct.send("message " + i);
+        }
+        report("one per call", count, direct, System.nanoTime() - start);
+
+        Gateway bulk = new Gateway();
+        start = System.nanoTime();
+        try (BatchingDecorator batching = new BatchingDecorator(bulk, batchSize, Duration.ofMillis(5))) {
+            for (int i = 0; i < count; i++) {
+                batching.send("message " + i);
+            }
+        }
+        report("batches of " + batchSize, count, bulk, System.nanoTime() - start);
+    }
+
+    private static void report(String label, int count, Gateway gateway, long nanos) {
+        System.out.printf("%-16s %,d messages in %,d gateway calls, %d ms -> %,.0f messages/s%n",
+                label + ":", gateway.messages.sum(), gateway.calls.sum(), nanos / 1_000_000, count * 1e9 / nanos);
+    }
+}
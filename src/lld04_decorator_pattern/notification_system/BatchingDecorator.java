@@ -0,0 +1,195 @@
+package lld04_decorator_pattern.notification_system;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ Step 7: Batching.
+
+ send() only queues the message (lock-free queue, no I/O on the caller's
+ thread). A flusher thread hands the wrapped notification a batch through
+ send(List) as soon as either
+   - batchSize messages are queued, or
+   - the oldest queued message has waited linger,
+ so a gateway that is cheaper per message in bulk gets bulk calls, and a quiet
+ period still delivers within linger. Messages keep their send() order.
+
+ sendAsync() queues the same way; its stage completes once the batch holding the
+ message was delivered (or fails with it); the gateway I/O stays on the flusher.
+
+ close() delivers everything still queued before it returns.
+ */
+class BatchingDecorator extends NotificationDecorator implements AutoCloseable {
+
+    private final int batchSize;
+    private final long lingerNanos;
+    private final ConcurrentLinkedQueue<Queued> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    private final LongAdder failed = new LongAdder();
+    private final Thread flusher;
+
+    private volatile long batchStart;
+    private volatile boolean closed;
+
+    public BatchingDecorator(Notification wrapped, int batchSize, Duration linger) {
+        super(wrapped);
+        if (batchSize <= 0 || linger.isNegative() || linger.isZero()) {
+            throw new IllegalArgumentException("batchSize and linger must be positive");
+        }
+        this.batchSize = batchSize;
+        this.lingerNanos = linger.toNanos();
+        this.flusher = new Thread(this::run, "batching-" + wrapped.getClass().getSimpleName());
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    @Override
+    public void send(String message) {
+        enqueue(new Queued(message, null));
+    }
+
+    /** Completes when the batch holding the message was delivered, or fails with the batch. */
+    @Override
+    public CompletionStage<Void> sendAsync(String message) {
+        CompletableFuture<Void> delivered = new CompletableFuture<>();
+        try {
+            enqueue(new Queued(message, delivered));
+        } catch (IllegalStateException e) {
+            delivered.completeExceptionally(e);
+        }
+        return delivered;
+    }
+
+    @Override
+    public void send(List<String> messages) {
+        for (String message : messages) {
+            send(message);
+        }
+    }
+
+    private void enqueue(Queued entry) {
+        checkOpen();
+        // counted before it is queued, so the flusher never takes more than pending says
+        int queued = pending.incrementAndGet();
+        if (queued == 1) {
+            batchStart = System.nanoTime();
+        }
+        queue.offer(entry);
+        if (closed && queue.remove(entry)) {
+            // close() may have drained for the last time before the count above; taken back, not stranded
+            pending.decrementAndGet();
+            checkOpen();
+        }
+        if (queued == 1 || queued == batchSize) {
+            LockSupport.unpark(flusher);
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("batching notification is closed");
+        }
+    }
+
+    /** Messages whose batch the wrapped notification threw on. */
+    long failedCount() {
+        return failed.sum();
+    }
+
+    private void run() {
+        while (true) {
+            int queued = pending.get();
+            long now = System.nanoTime();
+            if (queued >= batchSize || (queued > 0 && (closed || now - batchStart >= lingerNanos))) {
+                flush(queued);
+            } else if (closed) {
+                return;
+            } else if (queued == 0) {
+                LockSupport.park(this);
+            } else {
+                LockSupport.parkNanos(this, batchStart + lingerNanos - now);
+            }
+        }
+    }
+
+    private void flush(int queued) {
+        List<Queued> entries = new ArrayList<>(Math.min(queued, batchSize));
+        Queued entry;
+        while (entries.size() < batchSize && (entry = queue.poll()) != null) {
+            entries.add(entry);
+        }
+        // whatever is left keeps the old batchStart: it is flushed early rather than late
+        pending.addAndGet(-entries.size());
+        if (entries.isEmpty()) {
+            Thread.onSpinWait(); // counted but not queued yet
+            return;
+        }
+        List<String> batch = new ArrayList<>(entries.size());
+        for (Queued e : entries) {
+            batch.add(e.message);
+        }
+        RuntimeException failure = null;
+        try {
+            wrapped.send(batch);
+        } catch (RuntimeException e) {
+            failure = e;
+            failed.add(batch.size());
+            System.err.println("Batch of " + batch.size() + " notifications failed: " + e);
+        }
+        for (Queued e : entries) {
+            if (e.delivered != null) {
+                if (failure == null) {
+                    e.delivered.complete(null);
+                } else {
+                    e.delivered.completeExceptionally(failure);
+                }
+            }
+        }
+    }
+
+    /**
+     Delivers everything still queued, then returns. Waits through interrupts (a
+     half-closed decorator could strand queued sends) and restores the flag after.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(flusher);
+        boolean interrupted = false;
+        while (true) {
+            try {
+                flusher.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        // a send() that raced close() may have queued after the flusher's last look; it counted
+        // itself before reading closed, so either this loop sees it or it takes itself back
+        for (int queued; (queued = pending.get()) > 0; ) {
+            flush(queued);
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** A queued message; delivered is set only for sendAsync. */
+    private static final class Queued {
+
+        final String message;
+        final CompletableFuture<Void> delivered;
+
+        Queued(String message, CompletableFuture<Void> delivered) {
+            this.message = message;
+            this.delivered = delivered;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package lld04_decorator_pattern.notification_system;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ AES-GCM EncryptionDecorator throughput at 128 B, 1 KB and 16 KB messages, in
+ front of a no-op channel, with the bytes allocated per message measured by
+ the JVM's per-thread allocation counter (com.sun.management.ThreadMXBean).
+
+ Run: java lld04_decorator_pattern.notification_system.EncryptionBenchmark [megabytesPerSize]
+ */
+public class EncryptionBenchmark {
+
+    public static void main(String[] args) {
+        long megabytes = args.length > 0 ? Long.parseLong(args[0]) : 512;
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        String[] sink = new String[1];
+        EncryptionDecorator encryption = new EncryptionDecorator(message -> sink[0] = message);
+
+        for (int round = 1; round <= 2; round++) {
+            for (int size : new int[] {128, 1024, 16 * 1024}) {
+                char[] chars = new char[size];
+                Arrays.fill(chars, 'x');
+                String message = new String(chars);
+                long count = Math.max(10_000, (megabytes << 20) / size);
+
+                long bytesBefore = threads.getCurrentThreadAllocatedBytes();
+                long start = System.nanoTime();
+                for (long i = 0; i < count; i++) {
+                    encryption.send(message);
+                }
+                long nanos = System.nanoTime() - start;
+                long allocated = threads.getCurrentThreadAllocatedBytes() - bytesBefore;
+
+                if (!encryption.open(sink[0]).equals(message)) {
+                    throw new IllegalStateException("round trip failed");
+                }
+                System.out.printf("round %d, %5d B: %,9.0f messages/s, %,6.0f MB/s, %,6d B allocated/message "
+                                + "(result String: %,d B)%n",
+                        round, size, count * 1e9 / nanos, count * (double) size * 1e9 / nanos / (1 << 20),
+                        allocated / count, sink[0].length());
+            }
+        }
+    }
+}
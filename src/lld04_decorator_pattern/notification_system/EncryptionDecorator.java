@@ -0,0 +1,221 @@
+package lld04_decorator_pattern.notification_system;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+
+/**
+ Step 5: Another behavior (Encryption)
+
+ AES-GCM: the wrapped notification receives base64(nonce | ciphertext | tag)
+ instead of the plaintext, and open() turns that back into the message.
+
+ - A Sealer (Cipher, UTF-8 encoder and scratch arrays sized to the largest
+   message seen) is borrowed from a bounded pool for one message and given
+   back after it, so no two sends share crypto state and steady-state
+   encryption reuses the same buffers. The pool is per decorator, not per
+   thread: sendAsync runs each send on a fresh virtual thread, where a
+   ThreadLocal would build a new Cipher every time. When every pooled Sealer
+   is out, a new one is made, and returned ones past POOL_SIZE are dropped.
+   A Sealer whose seal threw is never given back: its Cipher may be left
+   half-initialized, so it is dropped and the next send makes a fresh one.
+ - The 12-byte nonce is a per-Sealer random 8-byte prefix (drawn from that
+   Sealer's own SecureRandom, never a shared one) followed by a 4-byte counter;
+   a new prefix is drawn every 2^32 messages, so a nonce never repeats in
+   practice, even across restarts with the same key.
+ - Buffers are heap arrays, not direct: the JDK's GCM copies direct buffers
+   through temporary arrays, which is slower and allocates per message.
+
+ Not zero-allocation, and cannot be with a String in and a String out. What
+ still allocates per message, in steady state:
+   - Cipher.init: a GCM nonce cannot be reused, so every message re-inits; the
+     GCMParameterSpec (which copies the nonce) and the JDK's GCM engine state
+     built by init make up ~0.8 KB, whatever the message size
+   - the result String and its byte[] (the Notification API passes Strings)
+ Everything else (UTF-8 bytes, ciphertext, base64 text, the CharBuffer the
+ encoder reads non-ASCII messages from) is reused; a Sealer allocates only when
+ a message longer than any before it grows its buffers, or when it is new.
+ */
+class EncryptionDecorator extends StageDecorator {
+
+    static final int NONCE_LENGTH = 12;
+    static final int TAG_BITS = 128;
+
+    private static final byte[] BASE64 =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".getBytes(StandardCharsets.US_ASCII);
+
+    private static final int POOL_SIZE = 2 * Runtime.getRuntime().availableProcessors();
+
+    private final SecretKey key;
+    private final ArrayBlockingQueue<Sealer> sealers = new ArrayBlockingQueue<>(POOL_SIZE);
+
+    /** Encrypts with a fresh random AES-256 key (see key()). */
+    public EncryptionDecorator(Notification wrapped) {
+        this(wrapped, newKey());
+    }
+
+    public EncryptionDecorator(Notification wrapped, SecretKey key) {
+        super(wrapped);
+        this.key = key;
+    }
+
+    @Override
+    public String before(String message) {
+        return seal(message);
+    }
+
+    SecretKey key() {
+        return key;
+    }
+
+    String seal(String message) {
+        Sealer sealer = sealers.poll();
+        if (sealer == null) {
+            sealer = new Sealer();
+        }
+        String sealed = sealer.seal(message); // on a throw the Sealer is dropped, not pooled
+        sealers.offer(sealer); // false when the pool is full: that Sealer is left to the GC
+        return sealed;
+    }
+
+    /** Decrypts and authenticates a sealed message; throws if it was tampered with. */
+    String open(String sealed) {
+        byte[] bytes = Base64.getDecoder().decode(sealed);
+        try {
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, bytes, 0, NONCE_LENGTH));
+            byte[] plain = cipher.doFinal(bytes, NONCE_LENGTH, bytes.length - NONCE_LENGTH);
+            return new String(plain, StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("message cannot be decrypted", e);
+        }
+    }
+
+    static SecretKey newKey() {
+        try {
+            KeyGenerator generator = KeyGenerator.getInstance("AES");
+            generator.init(256);
+            return generator.generateKey();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("AES is not available", e);
+        }
+    }
+
+    /** One cipher and its scratch space, used by one send at a time. */
+    private final class Sealer {
+
+        private final Cipher cipher;
+        private final CharsetEncoder utf8 = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final SecureRandom random = new SecureRandom();
+        private final byte[] nonce = new byte[NONCE_LENGTH];
+        private int counter;
+
+        private char[] chars = new char[0];
+        private CharBuffer charView = CharBuffer.wrap(chars);
+        private ByteBuffer plain = ByteBuffer.allocate(0);
+        private byte[] sealed = new byte[0];
+        private byte[] text = new byte[0];
+
+        Sealer() {
+            try {
+                cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("AES/GCM is not available", e);
+            }
+        }
+
+        String seal(String message) {
+            int maxPlain = message.length() * 3;
+            if (plain.capacity() < maxPlain) {
+                plain = ByteBuffer.allocate(maxPlain);
+                sealed = new byte[NONCE_LENGTH + maxPlain + TAG_BITS / 8];
+                text = new byte[(sealed.length + 2) / 3 * 4];
+            }
+            plain.clear();
+            if (!ascii(message, plain.array())) {
+                if (chars.length < message.length()) {
+                    chars = new char[message.length()];
+                    charView = CharBuffer.wrap(chars);
+                }
+                message.getChars(0, message.length(), chars, 0);
+                charView.clear().limit(message.length());
+                utf8.reset();
+                utf8.encode(charView, plain, true);
+                utf8.flush(plain);
+            } else {
+                plain.position(message.length());
+            }
+
+            nextNonce();
+            System.arraycopy(nonce, 0, sealed, 0, NONCE_LENGTH);
+            int length;
+            try {
+                cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, nonce));
+                length = NONCE_LENGTH + cipher.doFinal(plain.array(), 0, plain.position(), sealed, NONCE_LENGTH);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("encryption failed", e);
+            }
+            int encoded = base64(sealed, length, text);
+            return new String(text, 0, encoded, StandardCharsets.ISO_8859_1);
+        }
+
+        private void nextNonce() {
+            if (counter == 0) {
+                long prefix = random.nextLong();
+                for (int i = 0; i < 8; i++) {
+                    nonce[i] = (byte) (prefix >>> (56 - 8 * i));
+                }
+            }
+            nonce[8] = (byte) (counter >>> 24);
+            nonce[9] = (byte) (counter >>> 16);
+            nonce[10] = (byte) (counter >>> 8);
+            nonce[11] = (byte) counter;
+            counter++;
+        }
+    }
+
+    /** Copies message into dst as bytes if it is pure ASCII (the common case); false otherwise. */
+    private static boolean ascii(String message, byte[] dst) {
+        for (int i = 0; i < message.length(); i++) {
+            char c = message.charAt(i);
+            if (c >= 0x80) {
+                return false;
+            }
+            dst[i] = (byte) c;
+        }
+        return true;
+    }
+
+    /** Standard padded base64 of src[0, length) into dst; returns the encoded length. */
+    private static int base64(byte[] src, int length, byte[] dst) {
+        int out = 0;
+        int i = 0;
+        for (; i + 2 < length; i += 3) {
+            int bits = (src[i] & 0xFF) << 16 | (src[i + 1] & 0xFF) << 8 | (src[i + 2] & 0xFF);
+            dst[out++] = BASE64[bits >>> 18];
+            dst[out++] = BASE64[(bits >>> 12) & 0x3F];
+            dst[out++] = BASE64[(bits >>> 6) & 0x3F];
+            dst[out++] = BASE64[bits & 0x3F];
+        }
+        if (i < length) {
+            int bits = (src[i] & 0xFF) << 16 | (i + 1 < length ? (src[i + 1] & 0xFF) << 8 : 0);
+            dst[out++] = BASE64[bits >>> 18];
+            dst[out++] = BASE64[(bits >>> 12) & 0x3F];
+            dst[out++] = i + 1 < length ? BASE64[(bits >>> 6) & 0x3F] : (byte) '=';
+            dst[out++] = '=';
+        }
+        return out;
+    }
+}
@@ -0,0 +1,43 @@
+package lld04_decorator_pattern.notification_system;
+
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ Latency of sending one message over Email (50 ms), SMS (30 ms) and Push (10 ms)
+ simulated gateways: one after the other, FanOutNotification.all, and a 2-of-3
+ quorum. Sequential should take the sum, all() the max, quorum the second fastest.
+
+ Run: java lld04_decorator_pattern.notification_system.FanOutBenchmark [sends]
+ */
+public class FanOutBenchmark {
+
+    public static void main(String[] args) {
+        int sends = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        Notification email = gateway(50);
+        Notification sms = gateway(30);
+        Notification push = gateway(10);
+
+        Notification sequential = message -> {
+            email.send(message);
+            sms.send(message);
+            push.send(message);
+        };
+        report("sequential", sequential, sends);
+        report("fan-out all", FanOutNotification.all(Duration.ofSeconds(1), email, sms, push), sends);
+        report("fan-out 2 of 3", FanOutNotification.quorum(2, Duration.ofSeconds(1), email, sms, push), sends);
+    }
+
+    private static Notification gateway(long millis) {
+        return message -> LockSupport.parkNanos(millis * 1_000_000);
+    }
+
+    private static void report(String label, Notification notification, int sends) {
+        notification.send("warm-up");
+        long start = System.nanoTime();
+        for (int i = 0; i < sends; i++) {
+            notification.send("Your order has shipped");
+        }
+        System.out.printf("%-15s %5.1f ms per send%n", label + ":", (System.nanoTime() - start) / 1e6 / sends);
+    }
+}
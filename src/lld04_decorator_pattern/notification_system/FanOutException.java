@@ -0,0 +1,18 @@
+package lld04_decorator_pattern.notification_system;
+
+/** A fan-out that did not reach its quorum; failed channels' exceptions are attached as suppressed. */
+class FanOutException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int succeeded;
+
+    FanOutException(String message, int succeeded) {
+        super(message);
+        this.succeeded = succeeded;
+    }
+
+    int succeeded() {
+        return succeeded;
+    }
+}
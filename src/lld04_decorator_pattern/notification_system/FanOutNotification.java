@@ -0,0 +1,206 @@
+package lld04_decorator_pattern.notification_system;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ Step 9: Email + SMS + Push at once.
+
+ A composite Notification that sends to every channel concurrently, one
+ virtual thread per channel, so a send takes as long as the slowest channel
+ it waits for instead of the sum of all of them. Nothing queues behind a busy
+ channel: each channel has MAX_IN_FLIGHT permits, and a send that finds none
+ left fails that channel at once (RejectedExecutionException) instead of
+ waiting, so a stuck gateway cannot pile up threads without bound.
+
+ send() returns as soon as `quorum` channels succeeded (all of them for all()),
+ and throws FanOutException once the quorum can no longer be reached or the
+ timeout passes; failed channels' exceptions (Errors too) are attached as
+ suppressed. When send() fails, the channels still running are interrupted;
+ after a quorum they may finish, but are interrupted at the timeout.
+ sendAsync() applies the same rules to the channels' own sendAsync stages.
+
+ It is a plain Notification, so it can be wrapped by any decorator, e.g.
+ new LoggingDecorator(FanOutNotification.all(...)).
+ */
+class FanOutNotification implements Notification {
+
+    private static final ThreadFactory VIRTUAL = Thread.ofVirtual().name("fan-out-", 0).factory();
+    private static final int MAX_IN_FLIGHT = 10_000;
+
+    private final List<Notification> channels;
+    private final Semaphore[] inFlight;
+    private final int quorum;
+    private final long timeoutNanos;
+
+    private FanOutNotification(List<Notification> channels, int quorum, Duration timeout) {
+        if (channels.isEmpty() || quorum <= 0 || quorum > channels.size()) {
+            throw new IllegalArgumentException("need 0 < quorum <= channels, got " + quorum + " / " + channels.size());
+        }
+        this.channels = List.copyOf(channels);
+        this.quorum = quorum;
+        this.timeoutNanos = timeout.toNanos();
+        this.inFlight = new Semaphore[this.channels.size()];
+        for (int i = 0; i < inFlight.length; i++) {
+            inFlight[i] = new Semaphore(MAX_IN_FLIGHT);
+        }
+    }
+
+    /** Succeeds when every channel succeeded. */
+    static FanOutNotification all(Duration timeout, Notification... channels) {
+        return new FanOutNotification(List.of(channels), channels.length, timeout);
+    }
+
+    /** Succeeds when at least quorum channels succeeded. */
+    static FanOutNotification quorum(int quorum, Duration timeout, Notification... channels) {
+        return new FanOutNotification(List.of(channels), quorum, timeout);
+    }
+
+    @Override
+    public void send(String message) {
+        fanOut(channel -> channel.send(message));
+    }
+
+    @Override
+    public void send(List<String> messages) {
+        fanOut(channel -> channel.send(messages));
+    }
+
+    /**
+     Same rules as send(), without a thread per channel or a waiting caller: every
+     channel's sendAsync reports into the round, and a timer fails it at the
+     timeout; the timer is cancelled as soon as the round is decided.
+     */
+    @Override
+    public CompletionStage<Void> sendAsync(String message) {
+        Round round = new Round();
+        for (Notification channel : channels) {
+            try {
+                channel.sendAsync(message).whenComplete((ignored, failure) -> {
+                    if (failure == null) {
+                        round.succeeded();
+                    } else {
+                        round.failed(failure);
+                    }
+                });
+            } catch (RuntimeException e) {
+                round.failed(e);
+            }
+        }
+        if (!round.outcome.isDone()) {
+            // orTimeout cancels its timer once the deadline completes, which a decided round does right away
+            CompletableFuture<Void> deadline = new CompletableFuture<Void>().orTimeout(timeoutNanos, TimeUnit.NANOSECONDS);
+            deadline.whenComplete((ignored, timedOut) -> {
+                if (timedOut != null) {
+                    round.outcome.completeExceptionally(round.failure(false));
+                }
+            });
+            round.outcome.whenComplete((ignored, failure) -> deadline.complete(null));
+        }
+        return round.outcome;
+    }
+
+    private void fanOut(Consumer<Notification> delivery) {
+        Round round = new Round();
+        Thread[] senders = new Thread[channels.size()];
+        for (int i = 0; i < senders.length; i++) {
+            Notification channel = channels.get(i);
+            Semaphore permits = inFlight[i];
+            if (!permits.tryAcquire()) {
+                round.failed(new RejectedExecutionException(MAX_IN_FLIGHT + " sends already in flight on " + channel));
+                continue;
+            }
+            senders[i] = VIRTUAL.newThread(() -> {
+                try {
+                    delivery.accept(channel);
+                } catch (Throwable e) { // an Error counts too, or the round could only end at the timeout
+                    round.failed(e);
+                    return;
+                } finally {
+                    permits.release();
+                }
+                round.succeeded();
+            });
+            senders[i].start();
+        }
+        try {
+            round.outcome.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            interrupt(senders);
+            throw round.failure(false);
+        } catch (ExecutionException e) {
+            interrupt(senders);
+            throw (FanOutException) e.getCause();
+        } catch (InterruptedException e) {
+            interrupt(senders);
+            Thread.currentThread().interrupt();
+            throw new FanOutException("interrupted while fanning out", round.succeeded.get());
+        }
+        if (!round.settled.isDone()) {
+            // quorum reached: the others may still deliver, but not past the timeout
+            round.settled.orTimeout(timeoutNanos, TimeUnit.NANOSECONDS)
+                    .whenComplete((ignored, timedOut) -> interrupt(senders));
+        }
+    }
+
+    /** Interrupts the channels still sending (a finished thread ignores it). */
+    private static void interrupt(Thread[] senders) {
+        for (Thread sender : senders) {
+            if (sender != null) {
+                sender.interrupt();
+            }
+        }
+    }
+
+    /** Outcome of one send across all channels. */
+    private final class Round {
+
+        final AtomicInteger succeeded = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+        final ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        final CompletableFuture<Void> outcome = new CompletableFuture<>();
+        final CompletableFuture<Void> settled = new CompletableFuture<>(); // every channel has finished
+
+        void succeeded() {
+            if (succeeded.incrementAndGet() == quorum) {
+                outcome.complete(null);
+            }
+            finished();
+        }
+
+        void failed(Throwable failure) {
+            failures.add(failure instanceof CompletionException && failure.getCause() != null
+                    ? failure.getCause() : failure);
+            if (failed.incrementAndGet() == channels.size() - quorum + 1) {
+                outcome.completeExceptionally(failure(true)); // too many failures, the quorum is out of reach
+            }
+            finished();
+        }
+
+        private void finished() {
+            if (succeeded.get() + failed.get() == channels.size()) {
+                settled.complete(null);
+            }
+        }
+
+        FanOutException failure(boolean decided) {
+            int count = succeeded.get();
+            FanOutException failure = new FanOutException((decided ? "quorum unreachable: " : "timed out: ")
+                    + count + " of " + channels.size() + " channels succeeded, " + quorum + " needed", count);
+            failures.forEach(failure::addSuppressed);
+            return failure;
+        }
+    }
+}
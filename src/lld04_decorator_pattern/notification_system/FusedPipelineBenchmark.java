@@ -0,0 +1,96 @@
+package lld04_decorator_pattern.notification_system;
+
+/**
+ Nested decorator stacks versus the same stacks fused by NotificationPipeline,
+ at depth 2, 8 and 16 (a main-driven harness; the repo has no JMH setup).
+
+ Sixteen distinct, trivial stage types are used so that call sites see as many
+ receiver types as a real system with a dozen decorators would. All depths are
+ warmed up before anything is measured, so the profile is already polluted.
+
+ Run: java lld04_decorator_pattern.notification_system.FusedPipelineBenchmark [sendsPerRun]
+ */
+public class FusedPipelineBenchmark {
+
+    private static final int[] DEPTHS = {2, 8, 16};
+    private static final long[] hits = new long[16];
+
+    public static void main(String[] args) {
+        long sends = args.length > 0 ? Long.parseLong(args[0]) : 20_000_000L;
+        long[] delivered = new long[1];
+        Notification channel = message -> delivered[0]++;
+
+        Notification[] nested = new Notification[DEPTHS.length];
+        Notification[] fused = new Notification[DEPTHS.length];
+        for (int d = 0; d < DEPTHS.length; d++) {
+            Notification stack = channel;
+            for (int i = DEPTHS[d] - 1; i >= 0; i--) {
+                stack = stage(i, stack);
+            }
+            nested[d] = stack;
+            fused[d] = NotificationPipeline.fuse(stack);
+        }
+
+        for (int d = 0; d < DEPTHS.length; d++) {
+            run(nested[d], sends / 10);
+            run(fused[d], sends / 10);
+        }
+        for (int round = 1; round <= 3; round++) {
+            for (int d = 0; d < DEPTHS.length; d++) {
+                double nestedNs = run(nested[d], sends);
+                double fusedNs = run(fused[d], sends);
+                System.out.printf("round %d, depth %2d: nested %6.1f ns/send, fused %6.1f ns/send (%.2fx)%n",
+                        round, DEPTHS[d], nestedNs, fusedNs, nestedNs / fusedNs);
+            }
+        }
+        System.out.println("delivered " + delivered[0] + ", stage hits " + hits[0]);
+    }
+
+    private static double run(Notification notification, long sends) {
+        long start = System.nanoTime();
+        for (long i = 0; i < sends; i++) {
+            notification.send("OTP");
+        }
+        return (double) (System.nanoTime() - start) / sends;
+    }
+
+    /** Sixteen different stage classes, each with its own before() and some with an after(). */
+    private static StageDecorator stage(int kind, Notification next) {
+        return switch (kind) {
+            case 0 -> new StageDecorator(next) { @Override public String before(String m) { hits[0]++; return m; } };
+            case 1 -> new StageDecorator(next) { @Override public String before(String m) { hits[1] += 2; return m; } };
+            case 2 -> new AfterStage(next) {
+                @Override public String before(String m) { hits[2]++; return m; }
+                @Override public void after() { hits[2]--; }
+            };
+            case 3 -> new StageDecorator(next) { @Override public String before(String m) { hits[3] += m.length(); return m; } };
+            case 4 -> new StageDecorator(next) { @Override public String before(String m) { hits[4] ^= 1; return m; } };
+            case 5 -> new AfterStage(next) {
+                @Override public String before(String m) { hits[5]++; return m; }
+                @Override public void after() { hits[5] += 3; }
+            };
+            case 6 -> new StageDecorator(next) { @Override public String before(String m) { hits[6] += 6; return m; } };
+            case 7 -> new StageDecorator(next) { @Override public String before(String m) { hits[7]--; return m; } };
+            case 8 -> new StageDecorator(next) { @Override public String before(String m) { hits[8] |= 8; return m; } };
+            case 9 -> new AfterStage(next) {
+                @Override public String before(String m) { hits[9]++; return m; }
+                @Override public void after() { hits[9] ^= 9; }
+            };
+            case 10 -> new StageDecorator(next) { @Override public String before(String m) { hits[10] += 10; return m; } };
+            case 11 -> new StageDecorator(next) { @Override public String before(String m) { hits[11] += m.charAt(0); return m; } };
+            case 12 -> new StageDecorator(next) { @Override public String before(String m) { hits[12] = hits[12] * 31 + 1; return m; } };
+            case 13 -> new AfterStage(next) {
+                @Override public String before(String m) { hits[13]++; return m; }
+                @Override public void after() { hits[13] -= 2; }
+            };
+            case 14 -> new StageDecorator(next) { @Override public String before(String m) { hits[14] += 14; return m; } };
+            default -> new StageDecorator(next) { @Override public String before(String m) { hits[15]++; return m; } };
+        };
+    }
+
+    private abstract static class AfterStage extends StageDecorator implements NotificationStage.WithAfter {
+        AfterStage(Notification next) {
+            super(next);
+        }
+    }
+}
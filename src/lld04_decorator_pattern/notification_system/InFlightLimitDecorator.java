@@ -0,0 +1,89 @@
+package lld04_decorator_pattern.notification_system;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+
+/**
+ Step 10: Backpressure for sendAsync.
+
+ sendAsync() returns before the gateway answers, so nothing stops a producer
+ from starting sends faster than they finish until the heap is full of pending
+ messages. This decorator bounds the sends in flight below it: a send takes a
+ permit and gives it back when its stage completes (either way). Below the limit
+ it costs one uncontended semaphore acquire. At the limit:
+   - sendAsync() never waits: its stage fails at once with
+     RejectedExecutionException, and the caller decides (retry later, drop,
+     shed load), as any sendAsync caller must be able to on an event loop
+   - sendAsyncBlocking() parks the producer until some send completes, for a
+     plain producer thread that wants to be slowed down to the gateway's pace
+
+ Put it outermost, so every message below it counts, e.g.
+ new InFlightLimitDecorator(new LoggingDecorator(new EncryptionDecorator(...)), 100_000).
+ */
+class InFlightLimitDecorator extends NotificationDecorator {
+
+    private final int maxInFlight;
+    private final Semaphore permits;
+
+    public InFlightLimitDecorator(Notification wrapped, int maxInFlight) {
+        super(wrapped);
+        if (maxInFlight <= 0) {
+            throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+        }
+        this.maxInFlight = maxInFlight;
+        this.permits = new Semaphore(maxInFlight);
+    }
+
+    @Override
+    public void send(String message) {
+        acquire();
+        try {
+            wrapped.send(message);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /** Fails at once with RejectedExecutionException when maxInFlight sends are in flight. */
+    @Override
+    public CompletionStage<Void> sendAsync(String message) {
+        if (!permits.tryAcquire()) {
+            return CompletableFuture.failedFuture(
+                    new RejectedExecutionException(maxInFlight + " notifications already in flight"));
+        }
+        return sendAcquired(message);
+    }
+
+    /** Like sendAsync(), but parks the caller until a send completes when maxInFlight are in flight. */
+    CompletionStage<Void> sendAsyncBlocking(String message) {
+        acquire();
+        return sendAcquired(message);
+    }
+
+    private CompletionStage<Void> sendAcquired(String message) {
+        CompletionStage<Void> sent;
+        try {
+            sent = wrapped.sendAsync(message);
+        } catch (RuntimeException e) {
+            permits.release();
+            return CompletableFuture.failedFuture(e);
+        }
+        return sent.whenComplete((ignored, failure) -> permits.release());
+    }
+
+    /** Sends started and not completed yet (approximate). */
+    int inFlight() {
+        return maxInFlight - permits.availablePermits();
+    }
+
+    private void acquire() {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for an in-flight slot");
+        }
+    }
+}
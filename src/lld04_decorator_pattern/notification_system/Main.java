@@ -1,5 +1,8 @@
 package lld04_decorator_pattern.notification_system;
 
+import java.time.Duration;
+import java.util.List;
+
 /**
 PROBLEM STATEMENT: Notification System with Optional Behaviors
 
@@ -73,14 +76,6 @@ First: anchor the idea (no mysticism)
    That screams Decorator, not inheritance, not strategy, not if-else soup.
  */
 
-/*
-Step 1: The core abstraction (non-negotiable)
-Every decorator and concrete class must speak the same language.
-*/
-interface Notification {
-    void send(String message);
-}
-
 /**
  Step 2: The concrete base (Email)
 This is your already-existing, sacred, don’t-touch-again code.
@@ -94,23 +89,22 @@ class EmailNotification implements Notification {
 }
 
 /**
-Step 3: The Decorator base class (the spine)
-All decorators must:
-   implement Notification
-   wrap another Notification
-   delegate by default
+ Step 2b: More channels (SMS, Push)
+ New base notifications, nothing existing changes.
  */
-abstract class NotificationDecorator implements Notification {
-
-    protected final Notification wrapped;
+class SmsNotification implements Notification {
 
-    protected NotificationDecorator(Notification wrapped) {
-        this.wrapped = wrapped;
+    @Override
+    public void send(String message) {
+        System.out.println("Sending SMS: " + message);
     }
+}
+
+class PushNotification implements Notification {
 
     @Override
     public void send(String message) {
-        wrapped.send(message);
+        System.out.println("Sending PUSH: " + message);
     }
 }
 
@@ -118,39 +112,37 @@ abstract class NotificationDecorator implements Notification {
 Step 4: One optional behavior (Logging)
  This is where the pattern clicks.
  */
-class LoggingDecorator extends NotificationDecorator {
+class LoggingDecorator extends StageDecorator implements NotificationStage.WithAfter {
 
     public LoggingDecorator(Notification wrapped) {
         super(wrapped);
     }
 
     @Override
-    public void send(String message) {
+    public String before(String message) {
         System.out.println("[LOG] Notification about to be sent");
-        super.send(message);
-        System.out.println("[LOG] Notification sent");
+        return message;
     }
-}
 
-/**
- Step 5: Another behavior (Encryption)
- */
-class EncryptionDecorator extends NotificationDecorator {
+    @Override
+    public void after() {
+        System.out.println("[LOG] Notification sent");
+    }
 
-    public EncryptionDecorator(Notification wrapped) {
-        super(wrapped);
+    @Override
+    public List<String> beforeBatch(List<String> messages) {
+        System.out.println("[LOG] Batch of " + messages.size() + " notifications about to be sent");
+        return messages;
     }
 
     @Override
-    public void send(String message) {
-        System.out.println("[ENCRYPTION] Encrypting message");
-        super.send(message);
-        System.out.println("[ENCRYPTION] Message encrypted and sent");
+    public void afterBatch(int passed) {
+        System.out.println("[LOG] Batch sent");
     }
 }
 
 public class Main {
-   public static void main(String[] args) {
+   public static void main(String[] args) throws InterruptedException {
          Notification notification =
             new LoggingDecorator(
                 new EncryptionDecorator(
@@ -159,5 +151,47 @@ public class Main {
             );
 
          notification.send("Your OTP is 123456");
+
+         // same stack, flattened into one loop over its stages
+         NotificationPipeline.fuse(notification).send("Your OTP is 123456");
+
+         // at most one OTP per second per recipient, bursts of 2; the rest is dropped
+         Notification limited =
+            new RateLimitingDecorator(
+                new EmailNotification(),
+                message -> message.substring(0, message.indexOf(':')),
+                1, Duration.ofSeconds(1), 2, 10_000, RateLimitPolicy.DROP
+            );
+         for (int i = 0; i < 3; i++) {
+            limited.send("alice@example.com: Your OTP is 65432" + i);
+         }
+
+         // every channel at once: takes as long as the slowest one, not all of them added up
+         Notification everywhere =
+            new LoggingDecorator(
+                FanOutNotification.all(Duration.ofSeconds(2),
+                    new EmailNotification(), new SmsNotification(), new PushNotification())
+            );
+         everywhere.send("Your order has shipped");
+
+         // digests go out in bulk: 3 per gateway call, or whatever is queued after 100 ms
+         try (BatchingDecorator digests =
+                 new BatchingDecorator(new LoggingDecorator(new EmailNotification()), 3, Duration.ofMillis(100))) {
+            for (int i = 1; i <= 4; i++) {
+               digests.send("Weekly digest #" + i);
+            }
+            Thread.sleep(200);
+         }
+
+         // non-blocking: the stage completes once the gateway answered; past 100k in flight it fails at once
+         Notification async =
+            new InFlightLimitDecorator(
+                new LoggingDecorator(
+                    new EncryptionDecorator(
+                        new EmailNotification()
+                    )
+                ), 100_000
+            );
+         async.sendAsync("Your OTP is 123456").toCompletableFuture().join();
    }
 }
@@ -0,0 +1,136 @@
+package lld04_decorator_pattern.notification_system;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Consumer;
+
+/**
+ Runs the same chain nested and fused by NotificationPipeline and checks that
+ both produce the same trace (a main-driven check; the repo has no test setup).
+
+ The chain mixes every kind of stage: with and without a post phase, one that
+ stops some messages, one with its own afterBatch, and a rate limiter that
+ drops (send, send(List)) or holds (sendAsync) over its limit. Each stage and
+ the channel append what they saw to a trace, so a hook that runs in one mode
+ and not the other, or in another order, shows up as a difference.
+
+ Run: java lld04_decorator_pattern.notification_system.NestedVsFusedCheck
+ */
+public class NestedVsFusedCheck {
+
+    private static final List<String> MESSAGES = List.of(
+            "alice: your OTP is 1", "bob: spam offer", "alice: your OTP is 2",
+            "alice: your OTP is 3", "carol: your order shipped");
+
+    public static void main(String[] args) {
+        boolean ok = check("send", RateLimitPolicy.DROP, chain -> MESSAGES.forEach(chain::send));
+        ok &= check("send(List)", RateLimitPolicy.DROP, chain -> {
+            chain.send(MESSAGES);
+            chain.send(List.of("bob: spam only"));
+        });
+        ok &= check("sendAsync", RateLimitPolicy.DELAY, chain -> {
+            for (String message : MESSAGES) {
+                chain.sendAsync(message).toCompletableFuture().join();
+            }
+        });
+        if (!ok) {
+            System.exit(1);
+        }
+    }
+
+    private static boolean check(String name, RateLimitPolicy policy, Consumer<Notification> run) {
+        List<String> nested = new ArrayList<>();
+        run.accept(chain(nested, policy));
+        List<String> fused = new ArrayList<>();
+        run.accept(NotificationPipeline.fuse(chain(fused, policy)));
+        boolean same = nested.equals(fused);
+        System.out.printf("%-11s nested and fused traces match: %s (%d events)%n", name, same, nested.size());
+        if (!same) {
+            System.out.println("  nested: " + nested);
+            System.out.println("  fused:  " + fused);
+        }
+        return same;
+    }
+
+    /** A fresh chain (rate limiter state included) that records into trace. */
+    private static Notification chain(List<String> trace, RateLimitPolicy policy) {
+        Notification channel = new Notification() {
+            @Override
+            public void send(String message) {
+                trace.add("sent " + message);
+            }
+
+            @Override
+            public void send(List<String> messages) {
+                trace.add("sent batch " + messages);
+            }
+
+            @Override
+            public CompletionStage<Void> sendAsync(String message) {
+                send(message);
+                return CompletableFuture.completedFuture(null);
+            }
+        };
+        Notification limited = new RateLimitingDecorator(channel,
+                message -> message.substring(0, message.indexOf(':')),
+                1, Duration.ofMillis(200), 2, 100, policy);
+        return new Traced("A", trace, new SpamFilter(new BatchTraced("B", trace, limited)));
+    }
+
+    private static class Traced extends StageDecorator implements NotificationStage.WithAfter {
+
+        final String name;
+        final List<String> trace;
+
+        Traced(String name, List<String> trace, Notification wrapped) {
+            super(wrapped);
+            this.name = name;
+            this.trace = trace;
+        }
+
+        @Override
+        public String before(String message) {
+            trace.add(name + " before " + message);
+            return message;
+        }
+
+        @Override
+        public void after() {
+            trace.add(name + " after");
+        }
+    }
+
+    private static class BatchTraced extends Traced {
+
+        BatchTraced(String name, List<String> trace, Notification wrapped) {
+            super(name, trace, wrapped);
+        }
+
+        @Override
+        public List<String> beforeBatch(List<String> messages) {
+            trace.add(name + " before batch of " + messages.size());
+            return messages;
+        }
+
+        @Override
+        public void afterBatch(int passed) {
+            trace.add(name + " after batch of " + passed);
+        }
+    }
+
+    /** No post phase; stops spam. */
+    private static class SpamFilter extends StageDecorator {
+
+        SpamFilter(Notification wrapped) {
+            super(wrapped);
+        }
+
+        @Override
+        public String before(String message) {
+            return message.contains("spam") ? null : message;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package lld04_decorator_pattern.notification_system;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/*
+Step 1: The core abstraction (non-negotiable)
+Every decorator and concrete class must speak the same language.
+*/
+interface Notification {
+    void send(String message);
+
+    /**
+     Bulk entry point (see BatchingDecorator). Channels with a bulk gateway call
+     override it; by default every message goes through send(String) in order.
+     */
+    default void send(List<String> messages) {
+        for (String message : messages) {
+            send(message);
+        }
+    }
+
+    /**
+     Non-blocking send: completes when the message has been sent. Channels with
+     an async gateway override it; by default the blocking send(String) runs on
+     its own virtual thread, so the caller is never parked on gateway I/O.
+     Decorators never park the caller either: they hold messages on timers, and
+     InFlightLimitDecorator fails the stage at its limit (its
+     sendAsyncBlocking is the separately named variant that waits).
+     */
+    default CompletionStage<Void> sendAsync(String message) {
+        return CompletableFuture.runAsync(() -> send(message), task -> Thread.ofVirtual().start(task));
+    }
+}
@@ -0,0 +1,29 @@
+package lld04_decorator_pattern.notification_system;
+
+import java.util.concurrent.CompletionStage;
+
+/**
+Step 3: The Decorator base class (the spine)
+All decorators must:
+   implement Notification
+   wrap another Notification
+   delegate by default
+ */
+abstract class NotificationDecorator implements Notification {
+
+    protected final Notification wrapped;
+
+    protected NotificationDecorator(Notification wrapped) {
+        this.wrapped = wrapped;
+    }
+
+    @Override
+    public void send(String message) {
+        wrapped.send(message);
+    }
+
+    @Override
+    public CompletionStage<Void> sendAsync(String message) {
+        return wrapped.sendAsync(message);
+    }
+}
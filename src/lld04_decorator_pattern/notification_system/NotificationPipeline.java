@@ -0,0 +1,166 @@
+package lld04_decorator_pattern.notification_system;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ Step 8: A flat pipeline instead of a deep decorator stack.
+
+ new LoggingDecorator(new EncryptionDecorator(...)) turns every send into a
+ chain of nested calls through the same wrapped.send call site; with a dozen
+ decorator types that site is megamorphic and the JIT stops inlining it.
+ fuse() walks such a stack once, at build time, and keeps its stages in two
+ flat arrays run by one loop each:
+   - pre:  every stage's before(), in stack order, stopping at the first null
+   - post: only the stages that are NotificationStage.WithAfter, in reverse order
+ then sends to the channel at the bottom. Behavior is the same as the nested
+ stack: a stage's after() runs only if its before() ran and passed the message on,
+ and a batch goes through each stage's beforeBatch()/afterBatch() once.
+
+ sendAsync runs beforeAsync() instead of before() for the stages that are
+ NotificationStage.Holding, so a hold (RateLimitingDecorator's DELAY) waits on a timer, as it does nested.
+
+ Fusing stops at the first decorator that is not a StageDecorator (e.g.
+ BatchingDecorator); that decorator and everything below it is the channel.
+ */
+final class NotificationPipeline implements Notification {
+
+    private final NotificationStage[] pre;
+    private final boolean[] holding;    // pre[i] is a Holding
+    private final NotificationStage.WithAfter[] post;
+    private final int[] postIndex;      // position of post[i] in pre
+    private final Notification channel;
+
+    private NotificationPipeline(List<NotificationStage> stages, Notification channel) {
+        this.pre = stages.toArray(new NotificationStage[0]);
+        this.holding = new boolean[pre.length];
+        List<Integer> withAfter = new ArrayList<>();
+        for (int i = 0; i < pre.length; i++) {
+            holding[i] = pre[i] instanceof NotificationStage.Holding;
+            if (pre[i] instanceof NotificationStage.WithAfter) {
+                withAfter.add(i);
+            }
+        }
+        this.post = new NotificationStage.WithAfter[withAfter.size()];
+        this.postIndex = new int[withAfter.size()];
+        for (int i = 0; i < post.length; i++) {
+            postIndex[i] = withAfter.get(i);
+            post[i] = (NotificationStage.WithAfter) pre[postIndex[i]];
+        }
+        this.channel = channel;
+    }
+
+    /** Flattens a decorator stack built the usual way. */
+    static NotificationPipeline fuse(Notification stack) {
+        List<NotificationStage> stages = new ArrayList<>();
+        Notification current = stack;
+        while (current instanceof StageDecorator decorator) {
+            stages.add(decorator);
+            current = decorator.wrapped;
+        }
+        return new NotificationPipeline(stages, current);
+    }
+
+    /** Builds a pipeline from stages declared at runtime, outermost first. */
+    static NotificationPipeline of(Notification channel, List<? extends NotificationStage> stages) {
+        return new NotificationPipeline(new ArrayList<>(stages), channel);
+    }
+
+    int depth() {
+        return pre.length;
+    }
+
+    @Override
+    public void send(String message) {
+        int passed = 0;
+        String current = message;
+        while (passed < pre.length) {
+            current = pre[passed].before(current);
+            if (current == null) {
+                break;
+            }
+            passed++;
+        }
+        if (current != null) {
+            channel.send(current);
+        }
+        after(passed);
+    }
+
+    /**
+     The pre loop runs on the caller, up to a stage that holds the message; the
+     rest of it runs when the hold is over, the post loop when the channel's send completes.
+     */
+    @Override
+    public CompletionStage<Void> sendAsync(String message) {
+        return sendAsync(message, 0);
+    }
+
+    /** Continues an async send at stage from; stages [0, from) already passed the message on. */
+    private CompletionStage<Void> sendAsync(String message, int from) {
+        int passed = from;
+        String current = message;
+        try {
+            while (passed < pre.length) {
+                if (!holding[passed]) {
+                    current = pre[passed].before(current);
+                    if (current == null) {
+                        break;
+                    }
+                    passed++;
+                    continue;
+                }
+                long hold = ((NotificationStage.Holding) pre[passed]).beforeAsync(current);
+                if (hold < 0) {
+                    current = null;
+                    break;
+                }
+                passed++;
+                if (hold > 0) {
+                    String held = current;
+                    int next = passed;
+                    return CompletableFuture.runAsync(() -> { }, StageDecorator.heldFor(hold))
+                            .thenCompose(ignored -> sendAsync(held, next));
+                }
+            }
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (current == null) {
+            after(passed);
+            return CompletableFuture.completedFuture(null);
+        }
+        int stagesPassed = passed;
+        return channel.sendAsync(current).thenRun(() -> after(stagesPassed));
+    }
+
+    @Override
+    public void send(List<String> messages) {
+        int[] passedOn = new int[pre.length]; // messages each stage's beforeBatch() passed on
+        List<String> current = messages;
+        int passed = 0;
+        while (passed < pre.length && !current.isEmpty()) {
+            current = pre[passed].beforeBatch(current);
+            passedOn[passed++] = current.size();
+        }
+        if (!current.isEmpty()) {
+            channel.send(current);
+        }
+        for (int i = post.length - 1; i >= 0; i--) {
+            if (postIndex[i] < passed && passedOn[postIndex[i]] > 0) {
+                post[i].afterBatch(passedOn[postIndex[i]]);
+            }
+        }
+    }
+
+    /** Post phase of the stages [0, passed) whose before() passed the message on. */
+    private void after(int passed) {
+        for (int i = post.length - 1; i >= 0; i--) {
+            if (postIndex[i] < passed) {
+                post[i].after();
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package lld04_decorator_pattern.notification_system;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ A decorator behavior split into its two phases, so it can run either nested
+ (StageDecorator) or flattened into a NotificationPipeline:
+   - before: runs on the way in, returns the message to pass on (possibly
+     transformed), or null to stop this send quietly
+   - after:  runs on the way out once the rest of the chain returned, in reverse
+     order, only for stages whose before ran and passed the message on
+ A batch (send(List)) goes through beforeBatch/afterBatch instead, once per
+ stage; by default they are before/after per message, so only stages that act
+ on the batch as a whole (LoggingDecorator's one line per batch) override them.
+ A stage that may have to wait before a message goes on (RateLimitingDecorator's
+ DELAY) holds it in beforeAsync, so sendAsync waits on a timer instead of
+ parking the caller in before().
+
+ The optional phases are types, not flags: after()/afterBatch() exist only on
+ WithAfter and beforeAsync() only on Holding, so a stage has the hook exactly
+ when it implements the interface. Nested and fused runs both ask instanceof
+ and cannot disagree about which hooks a stage has.
+ */
+interface NotificationStage {
+
+    default String before(String message) {
+        return message;
+    }
+
+    /** The messages to pass on, in order; those before() stopped are left out. */
+    default List<String> beforeBatch(List<String> messages) {
+        List<String> out = new ArrayList<>(messages.size());
+        for (String message : messages) {
+            String passed = before(message);
+            if (passed != null) {
+                out.add(passed);
+            }
+        }
+        return out;
+    }
+
+    /** A stage with a post phase; a fused pipeline runs the post loop over these only. */
+    interface WithAfter extends NotificationStage {
+
+        void after();
+
+        /** Runs once the batch was sent; passed is how many messages beforeBatch passed on. */
+        default void afterBatch(int passed) {
+            for (int i = 0; i < passed; i++) {
+                after();
+            }
+        }
+    }
+
+    /** A stage that may hold a message; sendAsync calls beforeAsync() instead of before(). */
+    interface Holding extends NotificationStage {
+
+        /**
+         -1 stops the send quietly, otherwise the nanos to hold the message
+         (unchanged) before the next stage gets it. Must not block; only stages
+         that never transform the message implement it.
+         */
+        long beforeAsync(String message);
+    }
+}
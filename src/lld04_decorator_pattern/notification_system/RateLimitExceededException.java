@@ -0,0 +1,18 @@
+package lld04_decorator_pattern.notification_system;
+
+/** A send over the recipient's limit under RateLimitPolicy.REJECT; retryAfterNanos() says when the next slot opens. */
+class RateLimitExceededException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterNanos;
+
+    RateLimitExceededException(Object recipient, long retryAfterNanos) {
+        super("rate limit exceeded for " + recipient + ", retry in " + retryAfterNanos / 1_000_000 + " ms");
+        this.retryAfterNanos = retryAfterNanos;
+    }
+
+    long retryAfterNanos() {
+        return retryAfterNanos;
+    }
+}
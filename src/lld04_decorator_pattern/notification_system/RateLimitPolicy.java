@@ -0,0 +1,8 @@
+package lld04_decorator_pattern.notification_system;
+
+/** What happens to a send() over the recipient's limit. */
+enum RateLimitPolicy {
+    DROP,    // swallow the message (counted in droppedCount)
+    DELAY,   // hold the send until the recipient's next slot (sendAsync: on a timer, not a thread)
+    REJECT   // throw RateLimitExceededException
+}
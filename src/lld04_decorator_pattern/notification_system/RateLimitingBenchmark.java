@@ -0,0 +1,60 @@
+package lld04_decorator_pattern.notification_system;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ send() throughput through RateLimitingDecorator from several threads, in front
+ of a no-op channel so only the limiter is measured.
+
+ Messages are the recipient keys themselves (identity key extractor), picked
+ round-robin from `recipients` keys per thread. The limit (100/s per recipient,
+ burst 10) is below the offered load, so both the allowed and the dropped path run.
+
+ Run: java lld04_decorator_pattern.notification_system.RateLimitingBenchmark [threads] [recipients] [sendsPerThread]
+ */
+public class RateLimitingBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int recipients = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        long sends = args.length > 2 ? Long.parseLong(args[2]) : 20_000_000L;
+
+        String[] keys = new String[recipients];
+        for (int i = 0; i < recipients; i++) {
+            keys[i] = "user-" + i + "@example.com";
+            keys[i].hashCode(); // as a real recipient string would, after its first use
+        }
+
+        for (int round = 1; round <= 3; round++) {
+            RateLimitingDecorator limiter = new RateLimitingDecorator(message -> { }, message -> message,
+                    100, Duration.ofSeconds(1), 10, recipients * 2, RateLimitPolicy.DROP);
+            CountDownLatch go = new CountDownLatch(1);
+            Thread[] senders = new Thread[threads];
+            for (int t = 0; t < threads; t++) {
+                int offset = t * 7919;
+                senders[t] = new Thread(() -> {
+                    try {
+                        go.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (long i = 0; i < sends; i++) {
+                        limiter.send(keys[(int) ((i + offset) % recipients)]);
+                    }
+                });
+                senders[t].start();
+            }
+            long start = System.nanoTime();
+            go.countDown();
+            for (Thread sender : senders) {
+                sender.join();
+            }
+            long nanos = System.nanoTime() - start;
+            long total = sends * threads;
+            System.out.printf("round %d: %d thread(s), %,d recipients: %,.0f send()/s, %.0f%% dropped, %,d tracked%n",
+                    round, threads, recipients, total * 1e9 / nanos,
+                    100.0 * limiter.droppedCount() / total, limiter.trackedRecipients());
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package lld04_decorator_pattern.notification_system;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ Step 6: Rate limiting, per recipient.
+
+ Each recipient has a token bucket of `burst` tokens refilled at `rate` per
+ `period`, kept as a single long: the bucket's theoretical arrival time (GCRA,
+ the generic cell rate algorithm, is a token bucket written this way).
+ A send is one CAS on that long:
+   - tat = max(stored, now); allowed while tat - now <= (burst - 1) * interval
+   - allowed → CAS stored to tat + interval
+
+ Buckets live in a striped map bounded to exactly maxRecipients: up to
+ MAX_STRIPES stripes (fewer, a power of two, when maxRecipients is smaller, so
+ no stripe is empty), and the first maxRecipients % stripes of them hold one
+ bucket more than the rest. A bucket whose time
+ has passed is exactly a full, fresh bucket, so only those are evicted: a new
+ recipient in a full stripe advances the stripe's clock hand over at most
+ SWEEP buckets and takes the slot of the first refilled one. Buckets still
+ draining are never forgotten, so cycling through recipients cannot reset a
+ limit. Eviction CASes the bucket to EVICTED, so a send racing it either lands
+ first (and the bucket stays) or sees the tombstone and looks the recipient up
+ again.
+
+ If the sweep finds no refilled bucket, the newcomer gets no bucket of its own:
+ it is charged to its stripe's overflow bucket, one more GCRA bucket with the
+ same rate and burst, shared by every recipient that overflowed that stripe.
+ Together they get one recipient's allowance until a slot frees up, so a flood
+ of new recipients is throttled instead of evicting limits still in force;
+ nothing is remembered per overflowed recipient, and the next send of one that
+ then finds a free slot starts on a full bucket.
+
+ Known recipients cost a map lookup and a CAS; only a new recipient takes its
+ stripe's lock.
+
+ recipientOf extracts the key to limit on from the message (a whole decorator
+ can be limited as one with message -> "all").
+ */
+class RateLimitingDecorator extends StageDecorator implements NotificationStage.Holding {
+
+    private static final int MAX_STRIPES = 64;
+    private static final int SWEEP = 16;
+    private static final long EVICTED = Long.MAX_VALUE;
+
+    private final Function<String, ?> recipientOf;
+    private final RateLimitPolicy policy;
+    private final long interval;
+    private final long tolerance;
+    private final Stripe[] stripes;
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     @param rate  sustained sends allowed per period and recipient
+     @param burst sends a recipient may make back to back after being idle
+     */
+    public RateLimitingDecorator(Notification wrapped, Function<String, ?> recipientOf,
+                                 int rate, Duration period, int burst, int maxRecipients, RateLimitPolicy policy) {
+        super(wrapped);
+        if (rate <= 0 || burst <= 0 || maxRecipients <= 0 || period.isNegative() || period.isZero()) {
+            throw new IllegalArgumentException("rate, burst, maxRecipients and period must be positive");
+        }
+        this.recipientOf = recipientOf;
+        this.policy = policy;
+        this.interval = Math.max(1, period.toNanos() / rate);
+        this.tolerance = interval * (burst - 1);
+        this.stripes = new Stripe[Integer.highestOneBit(Math.min(MAX_STRIPES, maxRecipients))];
+        int perStripe = maxRecipients / stripes.length;
+        int extra = maxRecipients % stripes.length;
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe(i < extra ? perStripe + 1 : perStripe);
+        }
+    }
+
+    @Override
+    public String before(String message) {
+        long wait = admit(message);
+        if (wait < 0) {
+            return null;
+        }
+        if (wait > 0) {
+            sleep(wait);
+        }
+        return message;
+    }
+
+    /** DELAY waits on a timer instead of a thread: the send is held until its reserved slot. */
+    @Override
+    public long beforeAsync(String message) {
+        return admit(message);
+    }
+
+    long droppedCount() {
+        return dropped.sum();
+    }
+
+    /** Recipients currently tracked (approximate), at most maxRecipients; overflowed ones are not counted. */
+    int trackedRecipients() {
+        int total = 0;
+        for (Stripe stripe : stripes) {
+            total += stripe.size();
+        }
+        return total;
+    }
+
+    /**
+     Applies the policy to one message: -1 if it is dropped, 0 if it may go now,
+     otherwise how long DELAY has to hold it. REJECT throws.
+     */
+    private long admit(String message) {
+        Object recipient = recipientOf.apply(message);
+        long wait = acquire(recipient, System.nanoTime());
+        if (wait == 0) {
+            return 0;
+        }
+        return switch (policy) {
+            case DROP -> {
+                dropped.increment();
+                yield -1;
+            }
+            case REJECT -> throw new RateLimitExceededException(recipient, wait);
+            case DELAY -> wait;
+        };
+    }
+
+    /**
+     Takes a slot for the recipient. Returns 0 if the send may go now, otherwise
+     how long until it may; under DELAY that future slot is already reserved.
+     */
+    private long acquire(Object recipient, long now) {
+        Stripe stripe = stripes[spread(recipient.hashCode()) & (stripes.length - 1)];
+        AtomicLong bucket = stripe.buckets.get(recipient);
+        while (true) {
+            if (bucket == null) {
+                bucket = stripe.insert(recipient, now);
+            }
+            long stored = bucket.get();
+            if (stored == EVICTED) {
+                bucket = null; // lost the race with an eviction, nothing was taken from it
+                continue;
+            }
+            long tat = Math.max(stored, now);
+            long wait = tat - now - tolerance;
+            if (wait > 0 && policy != RateLimitPolicy.DELAY) {
+                return wait; // not allowed, and nothing is reserved
+            }
+            if (bucket.compareAndSet(stored, tat + interval)) {
+                return Math.max(0, wait);
+            }
+        }
+    }
+
+    /**
+     The buckets of one stripe. The map serves lookups; keys/values hold the
+     same buckets in slot order for the clock hand. Slots grow up to max.
+     */
+    private static final class Stripe {
+
+        final ConcurrentHashMap<Object, AtomicLong> buckets = new ConcurrentHashMap<>();
+        private final AtomicLong overflow = new AtomicLong(Long.MIN_VALUE);
+        private final int max;
+        private Object[] keys;
+        private AtomicLong[] values;
+        private int used;
+        private int hand;
+
+        Stripe(int max) {
+            this.max = max;
+            this.keys = new Object[Math.min(max, 16)];
+            this.values = new AtomicLong[keys.length];
+        }
+
+        synchronized int size() {
+            return used;
+        }
+
+        /** The recipient's bucket, a new one in a free or refilled slot, or else the overflow bucket. */
+        synchronized AtomicLong insert(Object recipient, long now) {
+            AtomicLong bucket = buckets.get(recipient);
+            if (bucket != null) {
+                return bucket;
+            }
+            int slot;
+            if (used < max) {
+                if (used == keys.length) {
+                    int length = Math.min(max, keys.length * 2);
+                    keys = Arrays.copyOf(keys, length);
+                    values = Arrays.copyOf(values, length);
+                }
+                slot = used++;
+            } else {
+                slot = sweep(now);
+                if (slot < 0) {
+                    return overflow;
+                }
+                buckets.remove(keys[slot], values[slot]);
+            }
+            bucket = new AtomicLong(Long.MIN_VALUE);
+            keys[slot] = recipient;
+            values[slot] = bucket;
+            buckets.put(recipient, bucket);
+            return bucket;
+        }
+
+        /** Clock hand: the first of the next SWEEP slots whose bucket has refilled, tombstoned; -1 if none. */
+        private int sweep(long now) {
+            for (int step = Math.min(SWEEP, used); step > 0; step--) {
+                int slot = hand;
+                hand = slot + 1 == used ? 0 : slot + 1;
+                AtomicLong bucket = values[slot];
+                long stored = bucket.get();
+                if (stored <= now && bucket.compareAndSet(stored, EVICTED)) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private static void sleep(long nanos) {
+        long deadline = System.nanoTime() + nanos;
+        for (long left = nanos; left > 0; left = deadline - System.nanoTime()) {
+            LockSupport.parkNanos(left);
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted while rate limited");
+            }
+        }
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,79 @@
+package lld04_decorator_pattern.notification_system;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ Step 3b: a decorator made of a stage. send() is before → wrapped → after,
+ exactly what a hand-written decorator does around super.send().
+
+ send and sendAsync are final on purpose: NotificationPipeline.fuse() runs only
+ a stage's hooks, never its send, so behavior put in a send override would be
+ skipped once the stack is fused. Override the hooks instead, and implement
+ NotificationStage.WithAfter / Holding to add the optional ones.
+ */
+abstract class StageDecorator extends NotificationDecorator implements NotificationStage {
+
+    protected StageDecorator(Notification wrapped) {
+        super(wrapped);
+    }
+
+    @Override
+    public final void send(String message) {
+        String out = before(message);
+        if (out != null) {
+            wrapped.send(out);
+            if (this instanceof WithAfter stage) {
+                stage.after();
+            }
+        }
+    }
+
+    /**
+     before() (or beforeAsync()) runs on the caller's thread (stages are CPU-only:
+     log, encrypt, admit); a hold and after() run on timers and completions,
+     without blocking anyone.
+     */
+    @Override
+    public final CompletionStage<Void> sendAsync(String message) {
+        String out;
+        long hold = 0;
+        try {
+            if (this instanceof Holding holding) {
+                hold = holding.beforeAsync(message);
+                out = hold < 0 ? null : message;
+            } else {
+                out = before(message);
+            }
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        if (out == null) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletionStage<Void> sent = hold == 0
+                ? wrapped.sendAsync(out)
+                : CompletableFuture.runAsync(() -> { }, heldFor(hold)).thenCompose(ignored -> wrapped.sendAsync(out));
+        return this instanceof WithAfter stage ? sent.thenRun(stage::after) : sent;
+    }
+
+    @Override
+    public final void send(List<String> messages) {
+        List<String> out = beforeBatch(messages);
+        if (!out.isEmpty()) {
+            wrapped.send(out);
+            if (this instanceof WithAfter stage) {
+                stage.afterBatch(out.size());
+            }
+        }
+    }
+
+    /** Runs a task once nanos have passed; the timer hands it to a virtual thread, so it never runs on the timer. */
+    static Executor heldFor(long nanos) {
+        // the common pool may be a thread per task on small machines
+        return CompletableFuture.delayedExecutor(nanos, TimeUnit.NANOSECONDS, task -> Thread.ofVirtual().start(task));
+    }
+}